@@ -0,0 +1,136 @@
+package com.homeware.notificationservice.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gradient-style adaptive concurrency limit.
+ * <p>
+ * The limit tracks the ratio between a slow-moving baseline latency and the latency of recent
+ * requests. While requests complete close to the baseline the limit grows by a small queue
+ * allowance; once Postgres or SMTP saturate and latency climbs, the gradient drops below one and
+ * the limit shrinks until latency recovers. Server errors are treated like packet loss in AIMD
+ * and cut the limit multiplicatively.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double ERROR_BACKOFF = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final double baselineDecay;
+
+    private volatile double limit;
+    private double baselineRttNanos = Double.NaN; // guarded by this
+    private double recentRttNanos = Double.NaN; // guarded by this
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double smoothing, double tolerance, int baselineWindow) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.baselineDecay = 2.0 / (baselineWindow + 1);
+    }
+
+    /**
+     * Reserves a slot for a request, or returns {@code false} if the service is at its limit.
+     * Every successful call must be paired with {@link #release(long, boolean)} or {@link #releaseWithoutSample()}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean failed) {
+        int concurrency = inFlight.getAndDecrement();
+        onSample(rttNanos, concurrency, failed);
+    }
+
+    /**
+     * Frees the slot of a request that was rejected without doing the real work (validation error,
+     * duplicate). Its latency says nothing about database or SMTP load, and sub-millisecond rejections
+     * during a retry storm would otherwise drag the baseline down and collapse the limit.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void onSample(long rttNanos, int concurrency, boolean failed) {
+        if (failed) {
+            limit = clamp(limit * ERROR_BACKOFF);
+            return;
+        }
+
+        if (Double.isNaN(baselineRttNanos)) {
+            baselineRttNanos = rttNanos;
+            recentRttNanos = rttNanos;
+            return;
+        }
+        recentRttNanos = recentRttNanos * 0.5 + rttNanos * 0.5;
+        baselineRttNanos = baselineRttNanos * (1 - baselineDecay) + rttNanos * baselineDecay;
+
+        // Let the baseline recover quickly once a latency spike has passed
+        if (baselineRttNanos > recentRttNanos) {
+            baselineRttNanos = recentRttNanos;
+        }
+
+        // Don't grow the limit when we are not using it; the latency signal says nothing about headroom
+        if (concurrency < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRttNanos / recentRttNanos));
+        double queueAllowance = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueAllowance;
+        limit = clamp(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.admission.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for the ingest endpoint")
+                .register(registry);
+        Gauge.builder("notification.admission.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted to the ingest endpoint")
+                .register(registry);
+        FunctionCounter.builder("notification.admission.rejected", this, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .description("Requests shed by admission control")
+                .register(registry);
+    }
+}
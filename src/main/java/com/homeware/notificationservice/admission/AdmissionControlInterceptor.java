@@ -0,0 +1,44 @@
+package com.homeware.notificationservice.admission;
+
+import com.homeware.notificationservice.exception.ServiceOverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Sheds requests above the adaptive concurrency limit before they reach the controller, so a
+ * saturated database or SMTP server turns into fast 503s instead of client timeouts.
+ */
+@RequiredArgsConstructor
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!limiter.tryAcquire()) {
+            throw new ServiceOverloadedException("Service is at capacity, please retry later", retryAfterSeconds);
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        long rttNanos = System.nanoTime() - (Long) start;
+        if (ex == null && response.getStatus() >= 400 && response.getStatus() < 500) {
+            // Client errors (400 validation, 409 duplicate) are fast rejections, not a latency signal
+            limiter.releaseWithoutSample();
+        } else {
+            limiter.release(rttNanos, ex != null || response.getStatus() >= 500);
+        }
+    }
+}
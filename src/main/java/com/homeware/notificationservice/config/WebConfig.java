@@ -0,0 +1,48 @@
+package com.homeware.notificationservice.config;
+
+import com.homeware.notificationservice.admission.AdaptiveConcurrencyLimiter;
+import com.homeware.notificationservice.admission.AdmissionControlInterceptor;
+import com.homeware.notificationservice.replica.ReadYourWritesInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdaptiveConcurrencyLimiter paymentAdmissionLimiter;
+    private final long retryAfterSeconds;
+    private final ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor;
+
+    public WebConfig(@Value("${notification.admission.initial-limit:20}") int initialLimit,
+                     @Value("${notification.admission.min-limit:4}") int minLimit,
+                     @Value("${notification.admission.max-limit:200}") int maxLimit,
+                     @Value("${notification.admission.smoothing:0.2}") double smoothing,
+                     @Value("${notification.admission.tolerance:1.5}") double tolerance,
+                     @Value("${notification.admission.baseline-window:600}") int baselineWindow,
+                     @Value("${notification.admission.retry-after-seconds:1}") long retryAfterSeconds,
+                     ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor) {
+        this.paymentAdmissionLimiter = new AdaptiveConcurrencyLimiter(
+                initialLimit, minLimit, maxLimit, smoothing, tolerance, baselineWindow);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.readYourWritesInterceptor = readYourWritesInterceptor;
+    }
+
+    // Exposed as a bean so actuator binds its limit and rejection metrics
+    @Bean
+    public AdaptiveConcurrencyLimiter paymentAdmissionLimiter() {
+        return paymentAdmissionLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionControlInterceptor(paymentAdmissionLimiter, retryAfterSeconds))
+                .addPathPatterns("/api/notifications/payment");
+        // Only defined by ReplicaRoutingConfig; without replicas every read already goes to the primary
+        readYourWritesInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/notifications/**"));
+    }
+}
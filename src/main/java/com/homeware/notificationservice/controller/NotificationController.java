@@ -1,70 +1,70 @@
 package com.homeware.notificationservice.controller;
 
 import com.homeware.notificationservice.dto.PaymentDetails;
-import com.homeware.notificationservice.exception.DuplicateTransactionException;
+import com.homeware.notificationservice.dto.PaymentHistoryPage;
 import com.homeware.notificationservice.repository.PaymentDetailsRepository;
-import com.homeware.notificationservice.service.EmailNotificationService;
-import jakarta.validation.Valid;
+import com.homeware.notificationservice.service.PaymentNotificationProcessor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/notifications")
 @RequiredArgsConstructor
 public class NotificationController {
 
-    private final EmailNotificationService emailNotificationService;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final PaymentNotificationProcessor paymentNotificationProcessor;
     private final PaymentDetailsRepository paymentDetailsRepository;
 
     @PostMapping("/payment")
-    public ResponseEntity<String> handlePaymentNotification(@Valid @RequestBody PaymentDetails paymentDetails) {
-        log.info("Received payment notification for transaction: {} with status: {}", 
-                paymentDetails.getTransactionId(), paymentDetails.getPaymentStatus());
-        
-        // Validate failure reason for failed payments
-        if ("FAILED".equalsIgnoreCase(paymentDetails.getPaymentStatus()) 
-                && (paymentDetails.getFailureReason() == null || paymentDetails.getFailureReason().trim().isEmpty())) {
-            throw new IllegalArgumentException("Failure reason is required when payment status is FAILED");
+    public ResponseEntity<String> handlePaymentNotification(@RequestBody PaymentDetails paymentDetails) {
+        // Rejections propagate to GlobalExceptionHandler
+        PaymentNotificationProcessor.Outcome outcome = paymentNotificationProcessor.process(paymentDetails);
+        if (outcome == PaymentNotificationProcessor.Outcome.QUEUED) {
+            return ResponseEntity.accepted().body("Payment notification queued for delivery");
         }
-        
-        // Check if transaction already exists
-        if (paymentDetailsRepository.findByTransactionId(paymentDetails.getTransactionId()).isPresent()) {
-            log.warn("Transaction ID {} already exists in database", paymentDetails.getTransactionId());
-            throw new DuplicateTransactionException("Transaction ID already exists");
+        if (outcome == PaymentNotificationProcessor.Outcome.SCHEDULED) {
+            return ResponseEntity.accepted().body("Payment notification scheduled for delivery");
         }
         
-        // Convert DTO to Entity and save to database
-        com.homeware.notificationservice.entity.PaymentDetails paymentEntity = convertToEntity(paymentDetails);
-        paymentDetailsRepository.save(paymentEntity);
-        log.info("Payment details saved to database with ID: {}", paymentEntity.getId());
-        
-        // Send email notification
-        emailNotificationService.sendPaymentNotification(paymentDetails);
-        
         return ResponseEntity.ok("Payment successful !!!");
     }
     
-    private com.homeware.notificationservice.entity.PaymentDetails convertToEntity(PaymentDetails dto) {
-        com.homeware.notificationservice.entity.PaymentDetails entity = new com.homeware.notificationservice.entity.PaymentDetails();
-        entity.setTransactionId(dto.getTransactionId());
-        entity.setMerchantEmail(dto.getMerchantEmail());
-        entity.setMerchantName(dto.getMerchantName());
-        entity.setAmount(dto.getAmount());
-        entity.setCurrency(dto.getCurrency());
-        entity.setPaymentMethod(dto.getPaymentMethod());
-        entity.setPaymentStatus(dto.getPaymentStatus().toUpperCase());
-        entity.setFailureReason(dto.getFailureReason());
-        entity.setCustomerEmail(dto.getCustomerEmail());
-        entity.setCustomerName(dto.getCustomerName());
-        entity.setTransactionDate(dto.getTransactionDate());
-        entity.setOrderId(dto.getOrderId());
-        entity.setDescription(dto.getDescription());
-        return entity;
+    @GetMapping("/payments")
+    public ResponseEntity<PaymentHistoryPage> getPaymentHistory(
+            @RequestParam String merchantEmail,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.debug("Payment history requested for merchant: {} with status: {}", merchantEmail, paymentStatus);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            // Rejected by GlobalExceptionHandler with 400
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        // One row past the page tells whether there is a next one.
+        // Read-only repository queries are served by a replica when replicas are configured
+        long beforeId = cursor == null ? Long.MAX_VALUE : cursor;
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<com.homeware.notificationservice.entity.PaymentDetails> rows = paymentStatus == null
+                ? paymentDetailsRepository.findMerchantHistory(merchantEmail, beforeId, page)
+                : paymentDetailsRepository.findMerchantHistoryByStatus(merchantEmail, paymentStatus.toUpperCase(), beforeId, page);
+        
+        List<com.homeware.notificationservice.entity.PaymentDetails> payments = rows.subList(0, Math.min(size, rows.size()));
+        Long nextCursor = rows.size() > size ? payments.get(size - 1).getId() : null;
+        return ResponseEntity.ok(new PaymentHistoryPage(
+                payments.stream().map(PaymentHistoryPage.Payment::from).toList(), nextCursor));
     }
 }
@@ -0,0 +1,67 @@
+package com.homeware.notificationservice.controller;
+
+import com.homeware.notificationservice.replay.ReplayJob;
+import com.homeware.notificationservice.replay.ReplayJobStore;
+import com.homeware.notificationservice.replay.ReplayProperties;
+import com.homeware.notificationservice.replay.ReplayRequest;
+import com.homeware.notificationservice.service.ReplayEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/replays")
+@RequiredArgsConstructor
+public class ReplayAdminController {
+
+    private final ReplayEngine replayEngine;
+    private final ReplayJobStore replayJobStore;
+    private final ReplayProperties replayProperties;
+
+    @PostMapping
+    public ResponseEntity<ReplayJob> startReplay(@RequestBody ReplayRequest request) {
+        return replayEngine.start(request)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReplayJob>> listReplays() {
+        return ResponseEntity.ok(replayJobStore.findRecent(replayProperties.getHistorySize()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReplayJob> getReplay(@PathVariable long id) {
+        return ResponseEntity.of(replayJobStore.find(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ReplayJob> cancelReplay(@PathVariable long id) {
+        if (!replayJobStore.cancel(id)) {
+            return replayJobStore.find(id)
+                    .map(job -> ResponseEntity.status(HttpStatus.CONFLICT).body(job))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
+        log.info("Replay job {} cancelled", id);
+        return ResponseEntity.of(replayJobStore.find(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ReplayJob> resumeReplay(@PathVariable long id) {
+        return replayEngine.resume(id)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job))
+                .orElseGet(() -> replayJobStore.find(id)
+                        .map(job -> ResponseEntity.status(HttpStatus.CONFLICT).body(job))
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.homeware.notificationservice.controller;
+
+import com.homeware.notificationservice.replay.ReplayJobStore;
+import com.homeware.notificationservice.sharding.ShardRebalancer;
+import com.homeware.notificationservice.sharding.ShardRing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/shards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "notification.sharding", name = "enabled", havingValue = "true")
+public class ShardAdminController {
+
+    private final ShardRing shardRing;
+    private final ShardRebalancer shardRebalancer;
+    private final ReplayJobStore replayJobStore;
+
+    @GetMapping
+    public ResponseEntity<List<String>> listShards() {
+        return ResponseEntity.ok(shardRing.getShardIds());
+    }
+
+    @GetMapping("/owner")
+    public ResponseEntity<String> ownerOf(@RequestParam String merchantEmail) {
+        return ResponseEntity.ok(shardRing.shardFor(merchantEmail));
+    }
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<Map<String, Long>> rebalance(@RequestParam(defaultValue = "true") boolean dryRun) {
+        log.info("Shard rebalance requested (dryRun={})", dryRun);
+        if (dryRun) {
+            return ResponseEntity.ok(shardRebalancer.rebalance(true));
+        }
+        // A moved row gets a new ID on its target shard, behind a running replay's keyset checkpoint
+        return replayJobStore.runWithoutReplays(() -> shardRebalancer.rebalance(false))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    log.warn("Shard rebalance refused: a replay job is running");
+                    return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                });
+    }
+}
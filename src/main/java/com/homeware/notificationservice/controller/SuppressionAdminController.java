@@ -0,0 +1,88 @@
+package com.homeware.notificationservice.controller;
+
+import com.homeware.notificationservice.suppression.SuppressionList;
+import com.homeware.notificationservice.suppression.SuppressionStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/suppressions")
+@RequiredArgsConstructor
+public class SuppressionAdminController {
+
+    private static final int BULK_BATCH_SIZE = 1000;
+
+    private final SuppressionList suppressionList;
+    private final SuppressionStore suppressionStore;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Integer>> getStats() {
+        return ResponseEntity.ok(Map.of("size", suppressionList.size(), "capacity", suppressionList.capacity()));
+    }
+
+    @GetMapping("/{email}")
+    public ResponseEntity<Map<String, Boolean>> isSuppressed(@PathVariable String email) {
+        return ResponseEntity.ok(Map.of("suppressed", suppressionList.contains(email)));
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Integer>> addSuppressions(@RequestBody List<String> emails) {
+        int added = suppressionStore.suppress(emails);
+        log.info("Added {} address(es) to the suppression list", added);
+        return ResponseEntity.ok(Map.of("added", added, "size", suppressionList.size()));
+    }
+
+    /**
+     * Bulk load: one address per line, streamed so large files are never held in memory. Each batch is
+     * committed on its own, so an interrupted load keeps what it has written and can simply be repeated.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Map<String, Integer>> bulkLoad(InputStream body) throws IOException {
+        int added = 0;
+        List<String> batch = new ArrayList<>(BULK_BATCH_SIZE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    batch.add(line);
+                }
+                if (batch.size() == BULK_BATCH_SIZE) {
+                    added += suppressionStore.suppress(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            added += suppressionStore.suppress(batch);
+        }
+        suppressionList.flush();
+        log.info("Bulk loaded {} address(es) into the suppression list", added);
+        return ResponseEntity.ok(Map.of("added", added, "size", suppressionList.size()));
+    }
+
+    @DeleteMapping("/{email}")
+    public ResponseEntity<Map<String, Boolean>> removeSuppression(@PathVariable String email) {
+        boolean removed = suppressionStore.unsuppress(email);
+        log.info("Removed {} from the suppression list: {}", email, removed);
+        return ResponseEntity.ok(Map.of("removed", removed));
+    }
+}
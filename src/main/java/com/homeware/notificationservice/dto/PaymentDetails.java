@@ -44,5 +44,7 @@ public class PaymentDetails {
     private LocalDateTime transactionDate;
     private String orderId;
     private String description;
+    
+    private LocalDateTime sendAt; // Optional: hold the notification until this time
 }
 
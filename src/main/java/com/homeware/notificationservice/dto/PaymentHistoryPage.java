@@ -0,0 +1,48 @@
+package com.homeware.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentHistoryPage {
+    private List<Payment> payments;
+    private Long nextCursor; // Pass back as cursor for the next page; null on the last page
+
+    /**
+     * A stored payment as the merchant submitted it. Delivery bookkeeping (status, attempts, lease times)
+     * stays internal.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Payment {
+        private String transactionId;
+        private String merchantEmail;
+        private String merchantName;
+        private BigDecimal amount;
+        private String currency;
+        private String paymentMethod;
+        private String paymentStatus;
+        private String failureReason;
+        private String customerEmail;
+        private String customerName;
+        private LocalDateTime transactionDate;
+        private String orderId;
+        private String description;
+        private LocalDateTime createdAt;
+
+        public static Payment from(com.homeware.notificationservice.entity.PaymentDetails entity) {
+            return new Payment(entity.getTransactionId(), entity.getMerchantEmail(), entity.getMerchantName(),
+                    entity.getAmount(), entity.getCurrency(), entity.getPaymentMethod(), entity.getPaymentStatus(),
+                    entity.getFailureReason(), entity.getCustomerEmail(), entity.getCustomerName(),
+                    entity.getTransactionDate(), entity.getOrderId(), entity.getDescription(), entity.getCreatedAt());
+        }
+    }
+}
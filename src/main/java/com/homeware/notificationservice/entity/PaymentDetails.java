@@ -10,11 +10,18 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payment_details")
+@EntityListeners(PaymentDetailsTimestamps.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentDetails {
     
+    public static final String DELIVERY_PENDING = "PENDING";
+    public static final String DELIVERY_DELIVERED = "DELIVERED";
+    public static final String DELIVERY_ABANDONED = "ABANDONED";
+    public static final String DELIVERY_SUPPRESSED = "SUPPRESSED";
+    public static final String DELIVERY_SCHEDULED = "SCHEDULED";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -58,24 +65,40 @@ public class PaymentDetails {
     @Column(name = "description", length = 1000)
     private String description;
     
+    @Column(name = "delivery_status", length = 20)
+    private String deliveryStatus; // "PENDING", "DELIVERED", "ABANDONED", "SUPPRESSED" or "SCHEDULED"
+    
+    @Column(name = "delivery_attempts")
+    private Integer deliveryAttempts;
+    
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // Send time while SCHEDULED, next retry while PENDING
+    
+    @Column(name = "last_attempt_at")
+    private LocalDateTime lastAttemptAt;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    @PrePersist
-    protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+    // Called on persist by PaymentDetailsTimestamps with the delivery clock's time
+    void onCreate(LocalDateTime now) {
+        createdAt = now;
+        updatedAt = now;
         if (transactionDate == null) {
-            transactionDate = LocalDateTime.now();
+            transactionDate = now;
+        }
+        if (deliveryStatus == null) {
+            deliveryStatus = DELIVERY_PENDING;
+        }
+        if (deliveryAttempts == null) {
+            deliveryAttempts = 0;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
         }
-    }
-    
-    @PreUpdate
-    protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
     }
 }
 
@@ -0,0 +1,32 @@
+package com.homeware.notificationservice.entity;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Stamps {@link PaymentDetails} from the delivery clock, so {@code created_at} and the other stored times are in
+ * the same zone as the send times and replay ranges they are compared with. Hibernate gets it from Spring.
+ */
+@Component
+public class PaymentDetailsTimestamps {
+
+    private final Clock clock;
+
+    public PaymentDetailsTimestamps(Clock deliveryClock) {
+        this.clock = deliveryClock;
+    }
+
+    @PrePersist
+    void onCreate(PaymentDetails payment) {
+        payment.onCreate(LocalDateTime.now(clock));
+    }
+
+    @PreUpdate
+    void onUpdate(PaymentDetails payment) {
+        payment.setUpdatedAt(LocalDateTime.now(clock));
+    }
+}
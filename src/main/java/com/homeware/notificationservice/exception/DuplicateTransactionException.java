@@ -1,8 +1,12 @@
 package com.homeware.notificationservice.exception;
 
+/**
+ * Thrown when a transaction ID has already been recorded. This is an expected rejection (client retries),
+ * so no stack trace is captured.
+ */
 public class DuplicateTransactionException extends RuntimeException {
     public DuplicateTransactionException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
 
@@ -2,7 +2,9 @@ package com.homeware.notificationservice.exception;
 
 import com.homeware.notificationservice.dto.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.MailException;
@@ -11,8 +13,10 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,27 +24,44 @@ import java.util.List;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String DUPLICATE_TRANSACTION_MESSAGE = "Transaction ID already exists";
+
+    // Validation failures and duplicates dominate retry storms, so their bodies are pre-serialized
+    private static final PreSerializedErrorBody VALIDATION_FAILED_BODY =
+            new PreSerializedErrorBody(HttpStatus.BAD_REQUEST, "Validation Failed", "Invalid input data");
+    private static final PreSerializedErrorBody DUPLICATE_TRANSACTION_BODY =
+            new PreSerializedErrorBody(HttpStatus.CONFLICT, "Conflict", DUPLICATE_TRANSACTION_MESSAGE);
+
+    private final RateLimitedLogger rejectionLog;
+
+    public GlobalExceptionHandler(
+            @Value("${notification.errors.rejection-log-per-second:10}") int rejectionLogPerSecond) {
+        this.rejectionLog = new RateLimitedLogger(log, rejectionLogPerSecond, Duration.ofSeconds(1));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleValidationExceptions(
+    public ResponseEntity<byte[]> handleValidationExceptions(
             MethodArgumentNotValidException ex, WebRequest request) {
-        log.warn("Validation error: {}", ex.getMessage());
-        
-        List<ErrorResponse.FieldError> fieldErrors = new ArrayList<>();
-        ex.getBindingResult().getAllErrors().forEach(error -> {
-            String fieldName = ((FieldError) error).getField();
-            String errorMessage = error.getDefaultMessage();
-            fieldErrors.add(new ErrorResponse.FieldError(fieldName, errorMessage));
-        });
-
-        ErrorResponse errorResponse = new ErrorResponse();
-        errorResponse.setTimestamp(java.time.LocalDateTime.now());
-        errorResponse.setStatus(HttpStatus.BAD_REQUEST.value());
-        errorResponse.setError("Validation Failed");
-        errorResponse.setMessage("Invalid input data");
-        errorResponse.setPath(request.getDescription(false).replace("uri=", ""));
-        errorResponse.setFieldErrors(fieldErrors);
+        List<FieldError> bindingErrors = ex.getBindingResult().getFieldErrors();
+        String path = requestPath(request);
+        // ex.getMessage() renders every error with its rejected value; the field count is enough here
+        rejectionLog.warn("Validation error on {} field(s) for {}", bindingErrors.size(), path);
+
+        List<ErrorResponse.FieldError> fieldErrors = new ArrayList<>(bindingErrors.size());
+        for (FieldError error : bindingErrors) {
+            fieldErrors.add(new ErrorResponse.FieldError(error.getField(), error.getDefaultMessage()));
+        }
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        return VALIDATION_FAILED_BODY.render(path, fieldErrors);
+    }
+
+    @ExceptionHandler(PaymentValidationException.class)
+    public ResponseEntity<byte[]> handlePaymentValidationException(
+            PaymentValidationException ex, WebRequest request) {
+        String path = requestPath(request);
+        rejectionLog.warn("Validation error on {} field(s) for {}", ex.getFieldErrors().size(), path);
+
+        return VALIDATION_FAILED_BODY.render(path, ex.getFieldErrors());
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
@@ -79,18 +100,33 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(DuplicateTransactionException.class)
-    public ResponseEntity<ErrorResponse> handleDuplicateTransactionException(
+    public ResponseEntity<byte[]> handleDuplicateTransactionException(
             DuplicateTransactionException ex, WebRequest request) {
-        log.warn("Duplicate transaction: {}", ex.getMessage());
+        rejectionLog.warn("Duplicate transaction: {}", ex.getMessage());
+
+        String path = requestPath(request);
+        if (DUPLICATE_TRANSACTION_MESSAGE.equals(ex.getMessage())) {
+            return DUPLICATE_TRANSACTION_BODY.render(path);
+        }
+        return new PreSerializedErrorBody(HttpStatus.CONFLICT, "Conflict", ex.getMessage()).render(path);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloadedException(
+            ServiceOverloadedException ex, WebRequest request) {
+        // Shedding is expected under load; keep it cheap and out of the WARN log
+        log.debug("Request rejected by admission control: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.CONFLICT.value(),
-                "Conflict",
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
                 ex.getMessage(),
                 request.getDescription(false).replace("uri=", "")
         );
 
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
     }
 
     @ExceptionHandler(DataAccessException.class)
@@ -152,5 +188,11 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
-}
 
+    private static String requestPath(WebRequest request) {
+        if (request instanceof ServletWebRequest servletWebRequest) {
+            return servletWebRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
+}
@@ -0,0 +1,12 @@
+package com.homeware.notificationservice.exception;
+
+/**
+ * Thrown when a notification cannot be dispatched right now because its lane is saturated.
+ * The payment row stays PENDING, so the redelivery sweeper sends it once capacity frees up.
+ * Deferral is routine under load, so the stack trace is skipped.
+ */
+public class NotificationDeferredException extends RuntimeException {
+    public NotificationDeferredException(String message) {
+        super(message, null, false, false);
+    }
+}
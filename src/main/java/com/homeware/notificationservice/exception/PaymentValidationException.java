@@ -0,0 +1,23 @@
+package com.homeware.notificationservice.exception;
+
+import com.homeware.notificationservice.dto.ErrorResponse;
+
+import java.util.List;
+
+/**
+ * Thrown by {@code PaymentDetailsValidator} when payment fields fail their constraints.
+ * Rendered exactly like a Bean Validation failure; an expected rejection, so stackless.
+ */
+public class PaymentValidationException extends RuntimeException {
+
+    private final List<ErrorResponse.FieldError> fieldErrors;
+
+    public PaymentValidationException(List<ErrorResponse.FieldError> fieldErrors) {
+        super("Invalid input data", null, false, false);
+        this.fieldErrors = fieldErrors;
+    }
+
+    public List<ErrorResponse.FieldError> getFieldErrors() {
+        return fieldErrors;
+    }
+}
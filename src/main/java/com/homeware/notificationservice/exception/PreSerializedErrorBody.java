@@ -0,0 +1,83 @@
+package com.homeware.notificationservice.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.homeware.notificationservice.dto.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * An {@link ErrorResponse} body for a fixed status, error and message, serialized once up front.
+ * Per request only the timestamp, path and any field errors are appended, so hot rejections skip
+ * building an {@code ErrorResponse} and running it through Jackson. The output has the same field
+ * order and formats as Jackson's rendering of {@code ErrorResponse}.
+ */
+final class PreSerializedErrorBody {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    private final HttpStatus status;
+    private final String fixedFields;
+
+    PreSerializedErrorBody(HttpStatus status, String error, String message) {
+        this.status = status;
+        this.fixedFields = "\",\"status\":" + status.value()
+                + ",\"error\":\"" + escape(error)
+                + "\",\"message\":\"" + escape(message)
+                + "\",\"path\":\"";
+    }
+
+    ResponseEntity<byte[]> render(String path) {
+        return render(path, null);
+    }
+
+    ResponseEntity<byte[]> render(String path, List<ErrorResponse.FieldError> fieldErrors) {
+        StringBuilder json = new StringBuilder(fixedFields.length() + 128);
+        json.append("{\"timestamp\":\"");
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(LocalDateTime.now(), json);
+        json.append(fixedFields);
+        ENCODER.quoteAsString(path, json);
+        json.append("\",\"fieldErrors\":");
+        if (fieldErrors == null) {
+            json.append("null");
+        } else {
+            json.append('[');
+            for (int i = 0; i < fieldErrors.size(); i++) {
+                ErrorResponse.FieldError fieldError = fieldErrors.get(i);
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"field\":");
+                appendNullable(json, fieldError.getField());
+                json.append(",\"message\":");
+                appendNullable(json, fieldError.getMessage());
+                json.append('}');
+            }
+            json.append(']');
+        }
+        json.append('}');
+
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendNullable(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+        } else {
+            json.append('"');
+            ENCODER.quoteAsString(value, json);
+            json.append('"');
+        }
+    }
+
+    private static String escape(String value) {
+        return new String(ENCODER.quoteAsString(value));
+    }
+}
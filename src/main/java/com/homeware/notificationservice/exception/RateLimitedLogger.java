@@ -0,0 +1,69 @@
+package com.homeware.notificationservice.exception;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a logger so that at most {@code permitsPerInterval} WARN lines are written per interval.
+ * Lines over the budget are counted, and the count is reported with the next line that gets through.
+ * Rejection storms then cost a counter increment per request instead of a formatted log line.
+ */
+public final class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int permitsPerInterval;
+    private final long intervalNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLogger(Logger logger, int permitsPerInterval, Duration interval) {
+        if (permitsPerInterval < 1) {
+            throw new IllegalArgumentException("permitsPerInterval must be at least 1");
+        }
+        this.logger = logger;
+        this.permitsPerInterval = permitsPerInterval;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void warn(String format, Object arg) {
+        if (logger.isWarnEnabled() && tryAcquire()) {
+            reportSuppressed();
+            logger.warn(format, arg);
+        }
+    }
+
+    public void warn(String format, Object arg1, Object arg2) {
+        if (logger.isWarnEnabled() && tryAcquire()) {
+            reportSuppressed();
+            logger.warn(format, arg1, arg2);
+        }
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() <= permitsPerInterval) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    private void reportSuppressed() {
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn("{} similar messages suppressed", dropped);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.homeware.notificationservice.exception;
+
+/**
+ * Thrown instead of sending when the recipient is on the suppression list (hard bounce or unsubscribe).
+ * Stackless: it is an outcome, not a fault.
+ */
+public class RecipientSuppressedException extends RuntimeException {
+    public RecipientSuppressedException(String message) {
+        super(message, null, false, false);
+    }
+}
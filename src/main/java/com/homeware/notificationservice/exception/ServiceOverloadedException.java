@@ -0,0 +1,19 @@
+package com.homeware.notificationservice.exception;
+
+/**
+ * Thrown by admission control when a request is shed because the service is at its concurrency limit.
+ * It is thrown on every shed request, so it skips stack trace capture.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
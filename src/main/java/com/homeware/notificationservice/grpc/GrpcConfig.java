@@ -0,0 +1,41 @@
+package com.homeware.notificationservice.grpc;
+
+import com.homeware.notificationservice.admission.AdaptiveConcurrencyLimiter;
+import com.homeware.notificationservice.service.PaymentNotificationProcessor;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Binary ingestion endpoint for internal producers, off unless {@code notification.grpc.enabled=true}.
+ * Shares the REST endpoint's processor and admission limiter.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "notification.grpc", name = "enabled", havingValue = "true")
+public class GrpcConfig {
+
+    @Bean
+    public PaymentNotificationGrpcService paymentNotificationGrpcService(
+            PaymentNotificationProcessor paymentNotificationProcessor,
+            AdaptiveConcurrencyLimiter paymentAdmissionLimiter,
+            Tracer tracer,
+            Clock deliveryClock,
+            @Value("${notification.grpc.max-stream-messages:10000}") int maxStreamMessages) {
+        return new PaymentNotificationGrpcService(paymentNotificationProcessor, paymentAdmissionLimiter, tracer,
+                maxStreamMessages, deliveryClock.getZone());
+    }
+
+    @Bean
+    public GrpcServer grpcServer(PaymentNotificationGrpcService paymentNotificationGrpcService,
+                                 @Value("${notification.grpc.port:9090}") int port,
+                                 @Value("${notification.grpc.worker-threads:32}") int workerThreads,
+                                 @Value("${notification.grpc.max-inbound-message-bytes:4194304}") int maxInboundMessageBytes,
+                                 @Value("${notification.grpc.shutdown-grace-seconds:10}") long shutdownGraceSeconds) {
+        return new GrpcServer(port, workerThreads, maxInboundMessageBytes, shutdownGraceSeconds,
+                paymentNotificationGrpcService);
+    }
+}
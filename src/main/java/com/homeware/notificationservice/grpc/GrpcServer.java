@@ -0,0 +1,91 @@
+package com.homeware.notificationservice.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the gRPC server alongside the servlet container. Calls execute on a fixed worker pool because
+ * payment processing blocks on the database and the dispatch lanes.
+ */
+@Slf4j
+public class GrpcServer implements SmartLifecycle {
+
+    private final int port;
+    private final int workerThreads;
+    private final int maxInboundMessageBytes;
+    private final long shutdownGraceSeconds;
+    private final BindableService service;
+
+    private ExecutorService executor;
+    private Server server;
+
+    public GrpcServer(int port, int workerThreads, int maxInboundMessageBytes, long shutdownGraceSeconds,
+                      BindableService service) {
+        this.port = port;
+        this.workerThreads = workerThreads;
+        this.maxInboundMessageBytes = maxInboundMessageBytes;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+        this.service = service;
+    }
+
+    @Override
+    public synchronized void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "grpc-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .executor(executor)
+                    .maxInboundMessageSize(maxInboundMessageBytes)
+                    .addService(service)
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, e);
+        }
+        log.info("gRPC server listening on port {} with {} worker threads", server.getPort(), workerThreads);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            server = null;
+        }
+        log.info("gRPC server stopped");
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    public synchronized int getPort() {
+        return server != null ? server.getPort() : port;
+    }
+}
@@ -0,0 +1,182 @@
+package com.homeware.notificationservice.grpc;
+
+import com.homeware.notificationservice.admission.AdaptiveConcurrencyLimiter;
+import com.homeware.notificationservice.dto.ErrorResponse;
+import com.homeware.notificationservice.exception.DuplicateTransactionException;
+import com.homeware.notificationservice.exception.PaymentValidationException;
+import com.homeware.notificationservice.grpc.v1.FieldError;
+import com.homeware.notificationservice.grpc.v1.PaymentNotification;
+import com.homeware.notificationservice.grpc.v1.PaymentNotificationServiceGrpc;
+import com.homeware.notificationservice.grpc.v1.SubmitBatchResult;
+import com.homeware.notificationservice.grpc.v1.SubmitResult;
+import com.homeware.notificationservice.service.PaymentNotificationProcessor;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.mail.MailException;
+
+import java.time.ZoneId;
+
+/**
+ * gRPC counterpart of {@code POST /api/notifications/payment}. Each message goes through the same
+ * {@link PaymentNotificationProcessor} and admission limiter as the REST endpoint; rejections that REST
+ * turns into error responses come back as a {@link SubmitResult} outcome with the same message text.
+ * <p>
+ * {@code SubmitStream} answers once, at the end, so its results are held until the client completes;
+ * a stream is therefore capped at {@code maxStreamMessages} and fails with {@code RESOURCE_EXHAUSTED}
+ * beyond that. Messages processed before the cap stay saved and come back as DUPLICATE when resubmitted.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PaymentNotificationGrpcService extends PaymentNotificationServiceGrpc.PaymentNotificationServiceImplBase {
+
+    private final PaymentNotificationProcessor paymentNotificationProcessor;
+    private final AdaptiveConcurrencyLimiter admissionLimiter;
+    private final Tracer tracer;
+    private final int maxStreamMessages;
+    // Zone of the delivery clock, in which Timestamps become the service's LocalDateTimes
+    private final ZoneId zone;
+
+    @Override
+    public void submit(PaymentNotification request, StreamObserver<SubmitResult> responseObserver) {
+        responseObserver.onNext(submitOne(request, "PaymentNotificationService/Submit"));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<PaymentNotification> submitStream(StreamObserver<SubmitBatchResult> responseObserver) {
+        return new StreamObserver<>() {
+
+            private final SubmitBatchResult.Builder batch = SubmitBatchResult.newBuilder();
+            private int accepted;
+            private int rejected;
+            private boolean aborted;
+
+            @Override
+            public void onNext(PaymentNotification message) {
+                if (aborted) {
+                    return;
+                }
+                if (accepted + rejected == maxStreamMessages) {
+                    aborted = true;
+                    log.warn("Payment stream exceeded {} messages, aborting: {} accepted, {} rejected",
+                            maxStreamMessages, accepted, rejected);
+                    responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                            .withDescription("SubmitStream accepts at most " + maxStreamMessages + " messages per call; "
+                                    + "the first " + maxStreamMessages + " were processed, send the rest in a new call")
+                            .asRuntimeException());
+                    return;
+                }
+                SubmitResult result = submitOne(message, "PaymentNotificationService/SubmitStream");
+                batch.addResults(result);
+                if (isAccepted(result.getOutcome())) {
+                    accepted++;
+                } else {
+                    rejected++;
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Messages already processed stay saved; the client resubmits the rest and gets DUPLICATE for those
+                log.warn("Payment stream aborted by client after {} messages: {}", accepted + rejected, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (aborted) {
+                    return;
+                }
+                log.info("Payment stream completed: {} accepted, {} rejected", accepted, rejected);
+                responseObserver.onNext(batch.setAccepted(accepted).setRejected(rejected).build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    private SubmitResult submitOne(PaymentNotification message, String spanName) {
+        Span span = tracer.spanBuilder(spanName).setSpanKind(SpanKind.SERVER).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            SubmitResult result = admitAndProcess(message);
+            if (result.getOutcome() == SubmitResult.Outcome.ERROR) {
+                span.setStatus(StatusCode.ERROR, result.getMessage());
+            }
+            return result;
+        } finally {
+            span.end();
+        }
+    }
+
+    private SubmitResult admitAndProcess(PaymentNotification message) {
+        SubmitResult.Builder result = SubmitResult.newBuilder().setTransactionId(message.getTransactionId());
+        if (!admissionLimiter.tryAcquire()) {
+            return result.setOutcome(SubmitResult.Outcome.OVERLOADED)
+                    .setMessage("Service is at capacity, please retry later")
+                    .build();
+        }
+
+        long start = System.nanoTime();
+        boolean failed = false;
+        boolean rejected = false;
+        try {
+            PaymentNotificationProcessor.Outcome outcome =
+                    paymentNotificationProcessor.process(PaymentNotificationMapper.toPaymentDetails(message, zone));
+            return switch (outcome) {
+                case DELIVERED -> result.setOutcome(SubmitResult.Outcome.DELIVERED).setMessage("Payment successful !!!").build();
+                case SUPPRESSED -> result.setOutcome(SubmitResult.Outcome.SUPPRESSED).setMessage("Payment successful !!!").build();
+                case QUEUED -> result.setOutcome(SubmitResult.Outcome.QUEUED).setMessage("Payment notification queued for delivery").build();
+                case SCHEDULED -> result.setOutcome(SubmitResult.Outcome.SCHEDULED).setMessage("Payment notification scheduled for delivery").build();
+            };
+        } catch (PaymentValidationException e) {
+            rejected = true;
+            result.setOutcome(SubmitResult.Outcome.INVALID).setMessage(e.getMessage());
+            for (ErrorResponse.FieldError fieldError : e.getFieldErrors()) {
+                result.addFieldErrors(FieldError.newBuilder()
+                        .setField(fieldError.getField())
+                        .setMessage(fieldError.getMessage()));
+            }
+            return result.build();
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+            return result.setOutcome(SubmitResult.Outcome.INVALID).setMessage(e.getMessage()).build();
+        } catch (DuplicateTransactionException e) {
+            rejected = true;
+            return result.setOutcome(SubmitResult.Outcome.DUPLICATE).setMessage(e.getMessage()).build();
+        } catch (DataAccessException e) {
+            failed = true;
+            log.error("Database error: ", e);
+            return result.setOutcome(SubmitResult.Outcome.ERROR)
+                    .setMessage("An error occurred while accessing the database").build();
+        } catch (MailException e) {
+            failed = true;
+            log.error("Mail sending error: ", e);
+            return result.setOutcome(SubmitResult.Outcome.ERROR).setMessage("Failed to send email notification").build();
+        } catch (RuntimeException e) {
+            failed = true;
+            log.error("Runtime error: ", e);
+            return result.setOutcome(SubmitResult.Outcome.ERROR)
+                    .setMessage(e.getMessage() != null ? e.getMessage() : "An unexpected error occurred").build();
+        } finally {
+            if (rejected) {
+                // Same as REST 4xx: fast rejections must not drag the latency baseline down
+                admissionLimiter.releaseWithoutSample();
+            } else {
+                admissionLimiter.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private static boolean isAccepted(SubmitResult.Outcome outcome) {
+        return outcome == SubmitResult.Outcome.DELIVERED
+                || outcome == SubmitResult.Outcome.QUEUED
+                || outcome == SubmitResult.Outcome.SUPPRESSED
+                || outcome == SubmitResult.Outcome.SCHEDULED;
+    }
+}
@@ -0,0 +1,117 @@
+package com.homeware.notificationservice.grpc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.grpc.v1.Decimal;
+import com.homeware.notificationservice.grpc.v1.PaymentNotification;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Converts between the Protobuf payment message and {@link PaymentDetails}. Amounts and dates travel as
+ * binary (unscaled integer + scale, seconds + nanos), so nothing is parsed from text.
+ * <p>
+ * Timestamps are instants; they are converted to and from the service's LocalDateTimes in {@code zone},
+ * the zone of the delivery clock, so a {@code send_at} means the same moment to the scheduler.
+ */
+public final class PaymentNotificationMapper {
+
+    private PaymentNotificationMapper() {
+    }
+
+    public static PaymentDetails toPaymentDetails(PaymentNotification message, ZoneId zone) {
+        PaymentDetails paymentDetails = new PaymentDetails();
+        paymentDetails.setTransactionId(message.getTransactionId());
+        paymentDetails.setMerchantEmail(message.getMerchantEmail());
+        paymentDetails.setMerchantName(message.getMerchantName());
+        paymentDetails.setAmount(message.hasAmount() ? toBigDecimal(message.getAmount()) : null);
+        paymentDetails.setCurrency(message.getCurrency());
+        paymentDetails.setPaymentMethod(message.getPaymentMethod());
+        paymentDetails.setPaymentStatus(message.getPaymentStatus());
+        paymentDetails.setFailureReason(message.hasFailureReason() ? message.getFailureReason() : null);
+        paymentDetails.setCustomerEmail(message.hasCustomerEmail() ? message.getCustomerEmail() : null);
+        paymentDetails.setCustomerName(message.hasCustomerName() ? message.getCustomerName() : null);
+        paymentDetails.setTransactionDate(message.hasTransactionDate() ? toLocalDateTime(message.getTransactionDate(), zone) : null);
+        paymentDetails.setOrderId(message.hasOrderId() ? message.getOrderId() : null);
+        paymentDetails.setDescription(message.hasDescription() ? message.getDescription() : null);
+        paymentDetails.setSendAt(message.hasSendAt() ? toLocalDateTime(message.getSendAt(), zone) : null);
+        return paymentDetails;
+    }
+
+    public static PaymentNotification toMessage(PaymentDetails paymentDetails, ZoneId zone) {
+        PaymentNotification.Builder builder = PaymentNotification.newBuilder();
+        if (paymentDetails.getTransactionId() != null) {
+            builder.setTransactionId(paymentDetails.getTransactionId());
+        }
+        if (paymentDetails.getMerchantEmail() != null) {
+            builder.setMerchantEmail(paymentDetails.getMerchantEmail());
+        }
+        if (paymentDetails.getMerchantName() != null) {
+            builder.setMerchantName(paymentDetails.getMerchantName());
+        }
+        if (paymentDetails.getAmount() != null) {
+            builder.setAmount(toDecimal(paymentDetails.getAmount()));
+        }
+        if (paymentDetails.getCurrency() != null) {
+            builder.setCurrency(paymentDetails.getCurrency());
+        }
+        if (paymentDetails.getPaymentMethod() != null) {
+            builder.setPaymentMethod(paymentDetails.getPaymentMethod());
+        }
+        if (paymentDetails.getPaymentStatus() != null) {
+            builder.setPaymentStatus(paymentDetails.getPaymentStatus());
+        }
+        if (paymentDetails.getFailureReason() != null) {
+            builder.setFailureReason(paymentDetails.getFailureReason());
+        }
+        if (paymentDetails.getCustomerEmail() != null) {
+            builder.setCustomerEmail(paymentDetails.getCustomerEmail());
+        }
+        if (paymentDetails.getCustomerName() != null) {
+            builder.setCustomerName(paymentDetails.getCustomerName());
+        }
+        if (paymentDetails.getTransactionDate() != null) {
+            builder.setTransactionDate(toTimestamp(paymentDetails.getTransactionDate(), zone));
+        }
+        if (paymentDetails.getOrderId() != null) {
+            builder.setOrderId(paymentDetails.getOrderId());
+        }
+        if (paymentDetails.getDescription() != null) {
+            builder.setDescription(paymentDetails.getDescription());
+        }
+        if (paymentDetails.getSendAt() != null) {
+            builder.setSendAt(toTimestamp(paymentDetails.getSendAt(), zone));
+        }
+        return builder.build();
+    }
+
+    static BigDecimal toBigDecimal(Decimal decimal) {
+        ByteString unscaled = decimal.getUnscaledValue();
+        BigInteger unscaledValue = unscaled.isEmpty() ? BigInteger.ZERO : new BigInteger(unscaled.toByteArray());
+        return new BigDecimal(unscaledValue, decimal.getScale());
+    }
+
+    static Decimal toDecimal(BigDecimal value) {
+        return Decimal.newBuilder()
+                .setUnscaledValue(ByteString.copyFrom(value.unscaledValue().toByteArray()))
+                .setScale(value.scale())
+                .build();
+    }
+
+    static LocalDateTime toLocalDateTime(Timestamp timestamp, ZoneId zone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos()), zone);
+    }
+
+    static Timestamp toTimestamp(LocalDateTime dateTime, ZoneId zone) {
+        Instant instant = dateTime.atZone(zone).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
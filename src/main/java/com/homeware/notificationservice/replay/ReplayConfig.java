@@ -0,0 +1,9 @@
+package com.homeware.notificationservice.replay;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ReplayProperties.class)
+public class ReplayConfig {
+}
@@ -0,0 +1,60 @@
+package com.homeware.notificationservice.replay;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A replay job as stored in {@code replay_job}, with its per-shard checkpoints. Counters are cumulative
+ * across resumes; rows from a page that was in flight when a job stopped are counted again when it resumes.
+ */
+@Data
+public class ReplayJob {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String FAILED = "FAILED";
+
+    private Long id;
+    private String status;
+    /** Node run that holds the job; replaced when another node claims it. */
+    private String owner;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<String> merchantEmails = new ArrayList<>();
+    private List<String> paymentStatuses = new ArrayList<>();
+    private List<String> deliveryStatuses = new ArrayList<>();
+    private boolean dryRun;
+    private int parallelism;
+    private double maxPerSecond;
+
+    /** Rows read so far. */
+    private long processed;
+    /** Notifications sent, or rendered on a dry run. */
+    private long sent;
+    /** Notifications sent whose row could not be marked DELIVERED afterwards; not included in {@code sent}. */
+    private long unmarked;
+    private long suppressed;
+    private long failed;
+    /** Times a send was pushed back by a saturated dispatch lane and retried. */
+    private long deferred;
+    /** Send rate since the previous checkpoint or heartbeat. */
+    private double ratePerSecond;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime heartbeatAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    /** Last dispatched payment ID per shard. */
+    private Map<String, Long> checkpoints = new LinkedHashMap<>();
+    private Set<String> completedShards = new LinkedHashSet<>();
+}
@@ -0,0 +1,258 @@
+package com.homeware.notificationservice.replay;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Persists replay jobs and their per-shard checkpoints in {@code replay_job} and {@code replay_checkpoint}.
+ * With sharding enabled no shard is pinned here, so both tables live in the directory database.
+ * <p>
+ * Replays and shard rebalances exclude each other through one advisory lock in the same database.
+ * Starting or resuming a job takes it shared, so jobs do not block one another. A rebalance takes it
+ * exclusively and then checks that no job is RUNNING. The lock is held until the job row commits, so
+ * whichever side gets the lock first is seen by the other.
+ */
+@Component
+public class ReplayJobStore {
+
+    private static final String SELECT_JOB = "SELECT * FROM replay_job ";
+    private static final String COUNTERS = "processed = ?, sent = ?, unmarked = ?, suppressed = ?, failed = ?, "
+            + "deferred = ?, rate_per_second = ?, ";
+
+    // Arbitrary application-wide key, shared by every node that uses this database
+    private static final long REPLAY_REBALANCE_LOCK = 0x7265706c6179L;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    public ReplayJobStore(DataSource dataSource, TransactionTemplate transactionTemplate, Clock deliveryClock) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+        this.clock = deliveryClock;
+    }
+
+    /**
+     * Records a new RUNNING job owned by {@code job.getOwner()}.
+     *
+     * @return false if a shard rebalance is running, in which case nothing is written
+     */
+    public boolean create(ReplayJob job) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> lockOutRebalance() && insert(job)));
+    }
+
+    private boolean insert(ReplayJob job) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Long id = jdbcTemplate.queryForObject("INSERT INTO replay_job (status, owner, from_time, to_time, merchant_emails, "
+                        + "payment_statuses, delivery_statuses, dry_run, parallelism, max_per_second, created_at, heartbeat_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING id", Long.class,
+                ReplayJob.RUNNING, job.getOwner(), job.getFrom(), job.getTo(), join(job.getMerchantEmails()),
+                join(job.getPaymentStatuses()), join(job.getDeliveryStatuses()), job.isDryRun(),
+                job.getParallelism(), job.getMaxPerSecond(), now, now);
+        job.setId(id);
+        job.setStatus(ReplayJob.RUNNING);
+        job.setCreatedAt(now);
+        job.setHeartbeatAt(now);
+        return true;
+    }
+
+    public Optional<ReplayJob> find(long id) {
+        List<ReplayJob> jobs = jdbcTemplate.query(SELECT_JOB + "WHERE id = ?", this::mapJob, id);
+        if (jobs.isEmpty()) {
+            return Optional.empty();
+        }
+        ReplayJob job = jobs.get(0);
+        jdbcTemplate.query("SELECT shard_id, last_id, completed FROM replay_checkpoint WHERE job_id = ? ORDER BY shard_id",
+                rs -> {
+                    job.getCheckpoints().put(rs.getString("shard_id"), rs.getLong("last_id"));
+                    if (rs.getBoolean("completed")) {
+                        job.getCompletedShards().add(rs.getString("shard_id"));
+                    }
+                }, id);
+        return Optional.of(job);
+    }
+
+    /**
+     * Most recent jobs first, without checkpoints.
+     */
+    public List<ReplayJob> findRecent(int limit) {
+        return jdbcTemplate.query(SELECT_JOB + "ORDER BY id DESC LIMIT ?", this::mapJob, limit);
+    }
+
+    /**
+     * Records that every row of {@code shardId} up to {@code lastId} has been dispatched, together with the
+     * job's counters, in one transaction.
+     *
+     * @return false if the job should stop: it was cancelled, or another node has claimed it (in which case
+     *         nothing is written)
+     */
+    public boolean checkpoint(ReplayJob job, String shardId, long lastId, boolean shardCompleted) {
+        String status = transactionTemplate.execute(tx -> {
+            List<String> statuses = jdbcTemplate.queryForList("UPDATE replay_job SET " + COUNTERS + "heartbeat_at = ? "
+                            + "WHERE id = ? AND owner = ? RETURNING status",
+                    String.class, withCounters(job, job.getId(), job.getOwner()));
+            if (statuses.isEmpty()) {
+                return null;
+            }
+            jdbcTemplate.update("INSERT INTO replay_checkpoint (job_id, shard_id, last_id, completed) VALUES (?, ?, ?, ?) "
+                            + "ON CONFLICT (job_id, shard_id) DO UPDATE SET last_id = EXCLUDED.last_id, completed = EXCLUDED.completed",
+                    job.getId(), shardId, lastId, shardCompleted);
+            return statuses.get(0);
+        });
+        return ReplayJob.RUNNING.equals(status);
+    }
+
+    /**
+     * Refreshes the heartbeat and counters of a run this node owns. Called on a timer, so a page held up by
+     * deferral backoff neither makes the job look orphaned nor hides its progress. The counters may include
+     * rows of a page that has not been checkpointed yet.
+     *
+     * @return false if the job should stop: it was cancelled, or another node has claimed it
+     */
+    public boolean heartbeat(ReplayJob job) {
+        return jdbcTemplate.update("UPDATE replay_job SET " + COUNTERS + "heartbeat_at = ? "
+                        + "WHERE id = ? AND status = ? AND owner = ?",
+                withCounters(job, job.getId(), ReplayJob.RUNNING, job.getOwner())) == 1;
+    }
+
+    // Arguments for COUNTERS and heartbeat_at, followed by the WHERE clause's
+    private Object[] withCounters(ReplayJob job, Object... where) {
+        List<Object> args = new ArrayList<>(List.of(job.getProcessed(), job.getSent(), job.getUnmarked(),
+                job.getSuppressed(), job.getFailed(), job.getDeferred(), job.getRatePerSecond(), LocalDateTime.now(clock)));
+        args.addAll(Arrays.asList(where));
+        return args.toArray();
+    }
+
+    /**
+     * Takes over a job so this node can resume it: allowed once it has stopped (cancelled or failed), or
+     * when it is still RUNNING but its node has stopped sending heartbeats.
+     *
+     * @return true if this caller now owns the job; false if it cannot be claimed or a shard rebalance is running
+     */
+    public boolean claim(long id, String owner, LocalDateTime staleBefore) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(tx -> lockOutRebalance() && update(id, owner, staleBefore)));
+    }
+
+    private boolean update(long id, String owner, LocalDateTime staleBefore) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return jdbcTemplate.update("UPDATE replay_job SET status = ?, owner = ?, heartbeat_at = ?, finished_at = NULL, error = NULL "
+                        + "WHERE id = ? AND (status IN (?, ?) OR (status = ? AND heartbeat_at < ?))",
+                ReplayJob.RUNNING, owner, now, id, ReplayJob.CANCELLED, ReplayJob.FAILED, ReplayJob.RUNNING, staleBefore) == 1;
+    }
+
+    /**
+     * Runs {@code rebalance} while no replay job can start, resume or be running. The lock is taken on a
+     * connection of its own and released when that connection's transaction ends, so a node that dies
+     * mid-rebalance does not leave it held.
+     *
+     * @return the result, or empty if a replay job is running or being started
+     */
+    public <T> Optional<T> runWithoutReplays(Supplier<T> rebalance) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (!query(connection, "SELECT pg_try_advisory_xact_lock(?)", REPLAY_REBALANCE_LOCK)
+                        || query(connection, "SELECT EXISTS (SELECT 1 FROM replay_job WHERE status = ?)", ReplayJob.RUNNING)) {
+                    return Optional.empty();
+                }
+                return Optional.of(rebalance.get());
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not take the replay/rebalance lock", e);
+        }
+    }
+
+    // Takes the lock shared for the rest of the current transaction; false while a rebalance holds it
+    private boolean lockOutRebalance() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock_shared(?)", Boolean.class, REPLAY_REBALANCE_LOCK));
+    }
+
+    private static boolean query(Connection connection, String sql, Object parameter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, parameter);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * @return false if the job was not RUNNING
+     */
+    public boolean cancel(long id) {
+        return jdbcTemplate.update("UPDATE replay_job SET status = ?, finished_at = ? WHERE id = ? AND status = ?",
+                ReplayJob.CANCELLED, LocalDateTime.now(clock), id, ReplayJob.RUNNING) == 1;
+    }
+
+    /**
+     * Ends a run this node owns with COMPLETED or FAILED. A no-op if the job was cancelled or claimed meanwhile.
+     */
+    public void finish(ReplayJob job, String status, String error) {
+        jdbcTemplate.update("UPDATE replay_job SET status = ?, finished_at = ?, error = ? WHERE id = ? AND status = ? AND owner = ?",
+                status, LocalDateTime.now(clock), error, job.getId(), ReplayJob.RUNNING, job.getOwner());
+    }
+
+    private ReplayJob mapJob(ResultSet rs, int rowNum) throws SQLException {
+        ReplayJob job = new ReplayJob();
+        job.setId(rs.getLong("id"));
+        job.setStatus(rs.getString("status"));
+        job.setOwner(rs.getString("owner"));
+        job.setFrom(toLocalDateTime(rs.getTimestamp("from_time")));
+        job.setTo(toLocalDateTime(rs.getTimestamp("to_time")));
+        job.setMerchantEmails(split(rs.getString("merchant_emails")));
+        job.setPaymentStatuses(split(rs.getString("payment_statuses")));
+        job.setDeliveryStatuses(split(rs.getString("delivery_statuses")));
+        job.setDryRun(rs.getBoolean("dry_run"));
+        job.setParallelism(rs.getInt("parallelism"));
+        job.setMaxPerSecond(rs.getDouble("max_per_second"));
+        job.setProcessed(rs.getLong("processed"));
+        job.setSent(rs.getLong("sent"));
+        job.setUnmarked(rs.getLong("unmarked"));
+        job.setSuppressed(rs.getLong("suppressed"));
+        job.setFailed(rs.getLong("failed"));
+        job.setDeferred(rs.getLong("deferred"));
+        job.setRatePerSecond(rs.getDouble("rate_per_second"));
+        job.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        job.setHeartbeatAt(toLocalDateTime(rs.getTimestamp("heartbeat_at")));
+        job.setFinishedAt(toLocalDateTime(rs.getTimestamp("finished_at")));
+        job.setError(rs.getString("error"));
+        return job;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    // Email addresses cannot contain a newline, so it is a safe separator
+    private static String join(List<String> values) {
+        return values.isEmpty() ? null : String.join("\n", values);
+    }
+
+    private static List<String> split(String value) {
+        return value == null || value.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(value.split("\n")));
+    }
+}
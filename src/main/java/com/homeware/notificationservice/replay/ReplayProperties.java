@@ -0,0 +1,32 @@
+package com.homeware.notificationservice.replay;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "notification.replay")
+public class ReplayProperties {
+
+    /** Rows read per keyset page; progress is checkpointed after each page has been dispatched. */
+    private int chunkSize = 500;
+
+    /** Concurrent sends per job when the request does not say. */
+    private int parallelism = 8;
+
+    private int maxParallelism = 32;
+
+    /** Send cap per job when the request does not say; 0 means uncapped. */
+    private double maxPerSecond = 50;
+
+    private long deferralBackoffMs = 200;
+
+    private long maxDeferralBackoffMs = 10000;
+
+    /** A RUNNING job whose heartbeat is older than this is treated as orphaned and may be resumed by any node. */
+    private long staleAfterSeconds = 600;
+
+    /** How often a running job refreshes its heartbeat, independently of pages; keep well below {@code staleAfterSeconds}. */
+    private long heartbeatIntervalMs = 60000;
+
+    private int historySize = 50;
+}
@@ -0,0 +1,36 @@
+package com.homeware.notificationservice.replay;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects the payments to re-notify. Every criterion is optional; an empty request replays every
+ * DELIVERED and ABANDONED payment.
+ */
+@Data
+public class ReplayRequest {
+
+    /** Inclusive lower bound on {@code created_at}. */
+    private LocalDateTime from;
+
+    /** Exclusive upper bound on {@code created_at}. */
+    private LocalDateTime to;
+
+    private List<String> merchantEmails;
+
+    /** SUCCESS or FAILED; both when omitted. */
+    private String paymentStatus;
+
+    /** Defaults to DELIVERED and ABANDONED. PENDING and SCHEDULED rows belong to the sweeper and scheduler. */
+    private List<String> deliveryStatuses;
+
+    /** Render every matching notification and count the outcomes without sending or updating anything. */
+    private boolean dryRun;
+
+    private Integer parallelism;
+
+    /** Sends per second for this job; 0 means uncapped. */
+    private Double maxPerSecond;
+}
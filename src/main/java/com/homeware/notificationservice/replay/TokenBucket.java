@@ -0,0 +1,44 @@
+package com.homeware.notificationservice.replay;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking token bucket shared by the workers of one replay job. Permits refill continuously at
+ * {@code permitsPerSecond} up to one second's worth; a caller that finds the bucket empty reserves
+ * the next permit and sleeps until it is due, so waiting callers are served in arrival order.
+ */
+public class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private double tokens; // guarded by this
+    private long lastRefillNanos; // guarded by this
+
+    /**
+     * @param permitsPerSecond 0 or less for an unlimited bucket
+     */
+    public TokenBucket(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(permitsPerSecond, 1);
+        this.tokens = 1;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = now;
+            // Going negative reserves a future permit; later callers queue behind it
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
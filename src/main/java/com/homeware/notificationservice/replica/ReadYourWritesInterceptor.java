@@ -0,0 +1,59 @@
+package com.homeware.notificationservice.replica;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Keeps a client's reads off replicas that have not yet replayed the client's own last write, so a
+ * client that just posted a payment always sees it in the history endpoint.
+ * <p>
+ * The write position travels with the client rather than living on this node: it is issued by
+ * {@link ReadYourWritesTokenAdvice} as the {@value #WRITE_LSN_HEADER} header and the
+ * {@value #WRITE_LSN_COOKIE} cookie, and is honoured on every node behind the load balancer.
+ * Clients without a cookie jar send the header value back themselves.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    public static final String WRITE_LSN_HEADER = "X-Write-Lsn";
+    public static final String WRITE_LSN_COOKIE = "notification_write_lsn";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String token = writeToken(request);
+        if (token != null) {
+            ReplicaRoutingContext.requireReplayed(parseLsn(token));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingContext.clear();
+    }
+
+    private static String writeToken(HttpServletRequest request) {
+        String header = request.getHeader(WRITE_LSN_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header.trim();
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (WRITE_LSN_COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    // An unreadable token must not send the read to a stale replica, so it pins the read to the primary
+    private static long parseLsn(String token) {
+        try {
+            return Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.homeware.notificationservice.replica;
+
+import com.homeware.notificationservice.controller.NotificationController;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Issues the read-your-writes token after a successful write: the primary's WAL position once the
+ * write has committed. Runs before the response body is written, which is the last point where
+ * headers can still be added and is after the handler's transaction has committed.
+ * <p>
+ * The token never needs to expire: once every replica has replayed the position it no longer
+ * restricts routing, so it is a plain session cookie.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ControllerAdvice(assignableTypes = NotificationController.class)
+@ConditionalOnExpression("${notification.replicas.enabled:false} and !${notification.sharding.enabled:false}")
+public class ReadYourWritesTokenAdvice implements ResponseBodyAdvice<Object> {
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (HttpMethod.GET.equals(request.getMethod()) || !succeeded(response)) {
+            return body;
+        }
+
+        long lsn;
+        try {
+            lsn = lagMonitor.primaryLsn();
+        } catch (Exception e) {
+            // Without a position the client's reads stay on the primary for the rest of its session
+            log.warn("Could not read the primary WAL position for the read-your-writes token: {}", e.getMessage());
+            lsn = Long.MAX_VALUE;
+        }
+        response.getHeaders().set(ReadYourWritesInterceptor.WRITE_LSN_HEADER, Long.toString(lsn));
+        response.getHeaders().add(HttpHeaders.SET_COOKIE,
+                ResponseCookie.from(ReadYourWritesInterceptor.WRITE_LSN_COOKIE, Long.toString(lsn))
+                        .path("/api/notifications")
+                        .httpOnly(true)
+                        .build()
+                        .toString());
+        return body;
+    }
+
+    private static boolean succeeded(ServerHttpResponse response) {
+        return response instanceof ServletServerHttpResponse servletResponse
+                && servletResponse.getServletResponse().getStatus() < 400;
+    }
+}
@@ -0,0 +1,38 @@
+package com.homeware.notificationservice.replica;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * The primary database and the read replicas behind it.
+ */
+public class ReplicaDataSources implements AutoCloseable {
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+
+    public ReplicaDataSources(DataSource primary, Map<String, DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = Map.copyOf(replicas);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
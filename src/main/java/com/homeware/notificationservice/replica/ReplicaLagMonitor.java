@@ -0,0 +1,110 @@
+package com.homeware.notificationservice.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls each replica's replay position against the primary's WAL position and hands out only
+ * replicas that are reachable and within {@code maxLagSeconds} of the primary. Replicas start
+ * unhealthy until their first check passes.
+ * <p>
+ * A replica counts as caught up only once it has replayed everything the primary had written when
+ * the check started. Equal receive and replay positions are not enough: a standby whose WAL receiver
+ * has disconnected has replayed all it received but is still falling behind.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Insert position, so it is past the commit record of every transaction that has already committed
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), '0/0')::bigint";
+
+    // replayed and replay_age are null on a server that is not a standby, receiver is null without a WAL receiver
+    private static final String REPLICA_QUERY = "SELECT pg_wal_lsn_diff(pg_last_wal_replay_lsn(), '0/0')::bigint AS replayed, "
+            + "EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) AS replay_age, "
+            + "(SELECT status FROM pg_stat_wal_receiver) AS receiver";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final double maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Healthy replicas and the WAL position each had replayed at the last check
+    private volatile Map<String, Long> healthy = Map.of();
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, double maxLagSeconds) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.replicas.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        long primaryLsn;
+        try {
+            primaryLsn = primaryLsn();
+        } catch (Exception e) {
+            log.warn("Primary WAL position check failed, routing all reads to the primary: {}", e.getMessage());
+            healthy = Map.of();
+            return;
+        }
+
+        Map<String, Long> nowHealthy = new LinkedHashMap<>();
+        replicas.forEach((key, dataSource) -> {
+            try {
+                Map<String, Object> status = new JdbcTemplate(dataSource).queryForMap(REPLICA_QUERY);
+                Number replayed = (Number) status.get("replayed");
+                Number replayAge = (Number) status.get("replay_age");
+                Object receiver = status.get("receiver");
+                if (replayed == null) {
+                    log.warn("Replica {} is not in recovery, routing its reads to the primary", key);
+                } else if (replayed.longValue() >= primaryLsn) {
+                    nowHealthy.put(key, replayed.longValue());
+                } else if (!"streaming".equals(receiver)) {
+                    log.warn("Replica {} is behind the primary and its WAL receiver is {}, routing its reads to the primary",
+                            key, receiver != null ? receiver : "not running");
+                } else if (replayAge != null && replayAge.doubleValue() <= maxLagSeconds) {
+                    nowHealthy.put(key, replayed.longValue());
+                } else {
+                    log.warn("Replica {} is {}s behind the primary, routing its reads to the primary", key, replayAge);
+                }
+            } catch (Exception e) {
+                log.warn("Replica {} lag check failed: {}", key, e.getMessage());
+            }
+        });
+        healthy = Map.copyOf(nowHealthy);
+    }
+
+    /**
+     * @return the primary's current WAL position; a read on a replica that has replayed up to it sees
+     *         every transaction committed before this call
+     */
+    public long primaryLsn() {
+        Long lsn = new JdbcTemplate(primary).queryForObject(PRIMARY_LSN_QUERY, Long.class);
+        return lsn != null ? lsn : Long.MAX_VALUE;
+    }
+
+    /**
+     * @param minReplayedLsn WAL position the replica must have replayed, {@code 0} for any healthy replica
+     * @return the lookup key of a healthy replica that has replayed {@code minReplayedLsn} (round-robin),
+     *         or {@code null} if none is usable
+     */
+    public String pickReplica(long minReplayedLsn) {
+        List<String> candidates = new ArrayList<>(healthy.size());
+        healthy.forEach((key, replayed) -> {
+            if (replayed >= minReplayedLsn) {
+                candidates.add(key);
+            }
+        });
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+}
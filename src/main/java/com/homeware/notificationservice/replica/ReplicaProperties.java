@@ -0,0 +1,25 @@
+package com.homeware.notificationservice.replica;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "notification.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled;
+
+    private double maxLagSeconds = 5;
+
+    private List<Replica> pool = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
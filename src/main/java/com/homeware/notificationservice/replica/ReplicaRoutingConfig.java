@@ -0,0 +1,65 @@
+package com.homeware.notificationservice.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read/write splitting for the unsharded deployment: {@code spring.datasource} stays the primary
+ * and the databases under {@code notification.replicas.pool} serve read-only transactions.
+ */
+@Configuration
+@ConditionalOnExpression("${notification.replicas.enabled:false} and !${notification.sharding.enabled:false}")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaDataSources replicaDataSources(DataSourceProperties dataSourceProperties, ReplicaProperties properties) {
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getPool().size(); i++) {
+            ReplicaProperties.Replica replica = properties.getPool().get(i);
+            replicas.put("replica-" + i, DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.getDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build());
+        }
+        return new ReplicaDataSources(primary, replicas);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaDataSources replicaDataSources, ReplicaProperties properties) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(
+                replicaDataSources.getPrimary(), replicaDataSources.getReplicas(), properties.getMaxLagSeconds());
+        monitor.checkLag();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaDataSources replicaDataSources, ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                replicaDataSources.getPrimary(), replicaDataSources.getReplicas(), replicaLagMonitor);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Registered on the notification endpoints by WebConfig
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor() {
+        return new ReadYourWritesInterceptor();
+    }
+}
@@ -0,0 +1,26 @@
+package com.homeware.notificationservice.replica;
+
+/**
+ * Per-thread WAL position that a replica must have replayed before it may serve this thread's
+ * read-only work, used for read-your-writes consistency. Without one any healthy replica will do.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static void requireReplayed(long lsn) {
+        REQUIRED_LSN.set(lsn);
+    }
+
+    public static long requiredLsn() {
+        Long lsn = REQUIRED_LSN.get();
+        return lsn != null ? lsn : 0;
+    }
+
+    public static void clear() {
+        REQUIRED_LSN.remove();
+    }
+}
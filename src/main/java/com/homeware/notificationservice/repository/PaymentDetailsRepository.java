@@ -1,23 +1,183 @@
 package com.homeware.notificationservice.repository;
 
 import com.homeware.notificationservice.entity.PaymentDetails;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Only methods that {@code ShardRoutingInterceptor} can route are declared here. The generic CRUD methods
+ * ({@code findById}, {@code findAll}, {@code deleteById}, ...) are deliberately not inherited, so a call that
+ * sharding cannot serve fails to compile instead of failing in production.
+ */
 @Repository
-public interface PaymentDetailsRepository extends JpaRepository<PaymentDetails, Long> {
+@Transactional(readOnly = true)
+public interface PaymentDetailsRepository extends org.springframework.data.repository.Repository<PaymentDetails, Long> {
     
+    @Transactional
+    PaymentDetails save(PaymentDetails paymentDetails);
+    
+    // Read-write so it always runs on the primary: a lagging replica would let duplicates through
+    @Transactional
     Optional<PaymentDetails> findByTransactionId(String transactionId);
     
     Optional<PaymentDetails> findByTransactionIdAndPaymentStatus(String transactionId, String paymentStatus);
     
-    List<PaymentDetails> findByMerchantEmail(String merchantEmail);
-    
     List<PaymentDetails> findByPaymentStatus(String paymentStatus);
     
-    List<PaymentDetails> findByMerchantEmailAndPaymentStatus(String merchantEmail, String paymentStatus);
+    /**
+     * Keyset page of a merchant's payments with an ID below {@code beforeId}, newest first.
+     * Page with {@code PageRequest.of(0, size)}; the offset is always zero.
+     */
+    @Query("SELECT p FROM PaymentDetails p WHERE p.merchantEmail = :merchantEmail AND p.id < :beforeId ORDER BY p.id DESC")
+    List<PaymentDetails> findMerchantHistory(@Param("merchantEmail") String merchantEmail,
+                                             @Param("beforeId") long beforeId,
+                                             Pageable page);
+    
+    /**
+     * As {@link #findMerchantHistory}, restricted to one payment status.
+     */
+    @Query("SELECT p FROM PaymentDetails p WHERE p.merchantEmail = :merchantEmail AND p.paymentStatus = :paymentStatus "
+            + "AND p.id < :beforeId ORDER BY p.id DESC")
+    List<PaymentDetails> findMerchantHistoryByStatus(@Param("merchantEmail") String merchantEmail,
+                                                     @Param("paymentStatus") String paymentStatus,
+                                                     @Param("beforeId") long beforeId,
+                                                     Pageable page);
+    
+    /**
+     * Claims a batch of undelivered rows that are due for another attempt. Rows locked by
+     * another node are skipped rather than waited on, so every replica can sweep concurrently
+     * without sending the same notification twice. Must be called inside a transaction; the
+     * caller leases the rows (moves {@code next_attempt_at} forward) and commits before sending.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT * FROM payment_details "
+            + "WHERE delivery_status = 'PENDING' AND next_attempt_at <= :dueBefore "
+            + "ORDER BY next_attempt_at "
+            + "LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PaymentDetails> claimPendingDeliveries(@Param("dueBefore") LocalDateTime dueBefore, @Param("limit") int limit);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentDetails p SET p.deliveryStatus = 'DELIVERED', "
+            + "p.deliveryAttempts = p.deliveryAttempts + 1, p.lastAttemptAt = :deliveredAt, p.updatedAt = :deliveredAt "
+            + "WHERE p.transactionId = :transactionId")
+    int markDelivered(@Param("transactionId") String transactionId, @Param("deliveredAt") LocalDateTime deliveredAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentDetails p SET p.deliveryStatus = 'SUPPRESSED', p.updatedAt = :suppressedAt "
+            + "WHERE p.transactionId = :transactionId")
+    int markSuppressed(@Param("transactionId") String transactionId, @Param("suppressedAt") LocalDateTime suppressedAt);
+    
+    /**
+     * Extends the sweeper's lease on a claimed row just before it is sent. Returns 0 if the row no longer holds the
+     * lease {@code heldUntil}: it was delivered meanwhile, or the lease expired and another node has claimed it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentDetails p SET p.nextAttemptAt = :leaseUntil "
+            + "WHERE p.transactionId = :transactionId AND p.deliveryStatus = 'PENDING' AND p.nextAttemptAt = :heldUntil")
+    int renewLease(@Param("transactionId") String transactionId,
+                   @Param("heldUntil") LocalDateTime heldUntil,
+                   @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    /**
+     * Pushes back a PENDING row whose send was deferred by a saturated dispatcher, without counting an attempt.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentDetails p SET p.nextAttemptAt = :nextAttemptAt, p.updatedAt = :updatedAt "
+            + "WHERE p.transactionId = :transactionId AND p.deliveryStatus = 'PENDING'")
+    int deferDelivery(@Param("transactionId") String transactionId,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentDetails p SET p.deliveryAttempts = :attempts, p.lastAttemptAt = :attemptedAt, "
+            + "p.nextAttemptAt = :nextAttemptAt, p.updatedAt = :attemptedAt "
+            + "WHERE p.transactionId = :transactionId AND p.deliveryStatus = 'PENDING'")
+    int recordFailedAttempt(@Param("transactionId") String transactionId,
+                            @Param("attempts") int attempts,
+                            @Param("attemptedAt") LocalDateTime attemptedAt,
+                            @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentDetails p SET p.deliveryStatus = 'ABANDONED', p.deliveryAttempts = :attempts, "
+            + "p.lastAttemptAt = :abandonedAt, p.updatedAt = :abandonedAt "
+            + "WHERE p.transactionId = :transactionId AND p.deliveryStatus = 'PENDING'")
+    int markAbandoned(@Param("transactionId") String transactionId,
+                      @Param("attempts") int attempts,
+                      @Param("abandonedAt") LocalDateTime abandonedAt);
+    
+    /**
+     * Moves a SCHEDULED row to PENDING when its send time arrives. Returns 0 if another node (or an earlier
+     * firing) already did, so exactly one caller goes on to send. From PENDING the redelivery sweeper owns
+     * retries if the send then fails.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentDetails p SET p.deliveryStatus = 'PENDING', p.nextAttemptAt = :dueAt, p.updatedAt = :dueAt "
+            + "WHERE p.transactionId = :transactionId AND p.deliveryStatus = 'SCHEDULED'")
+    int markDue(@Param("transactionId") String transactionId, @Param("dueAt") LocalDateTime dueAt);
+    
+    /**
+     * Keyset page of SCHEDULED rows due after ({@code afterTime}, {@code afterId}) and no later than
+     * {@code dueBefore}, in send order.
+     */
+    @Query(value = "SELECT id, transaction_id AS transactionId, next_attempt_at AS nextAttemptAt FROM payment_details "
+            + "WHERE delivery_status = 'SCHEDULED' AND (next_attempt_at, id) > (:afterTime, :afterId) "
+            + "AND next_attempt_at <= :dueBefore "
+            + "ORDER BY next_attempt_at, id "
+            + "LIMIT :limit", nativeQuery = true)
+    List<ScheduledDelivery> findScheduledDeliveries(@Param("afterTime") LocalDateTime afterTime,
+                                                    @Param("afterId") long afterId,
+                                                    @Param("dueBefore") LocalDateTime dueBefore,
+                                                    @Param("limit") int limit);
+    
+    /**
+     * Keyset page of payments for a replay job: rows after {@code afterId} created in [{@code from}, {@code to}),
+     * in ID order. Page with {@code PageRequest.of(0, size)}; the offset is always zero.
+     */
+    @Query("SELECT p FROM PaymentDetails p WHERE p.id > :afterId AND p.createdAt >= :from AND p.createdAt < :to "
+            + "AND p.paymentStatus IN :paymentStatuses AND p.deliveryStatus IN :deliveryStatuses ORDER BY p.id")
+    List<PaymentDetails> findReplayChunk(@Param("afterId") long afterId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("paymentStatuses") List<String> paymentStatuses,
+                                         @Param("deliveryStatuses") List<String> deliveryStatuses,
+                                         Pageable page);
+    
+    /**
+     * As {@link #findReplayChunk}, restricted to a set of merchants.
+     */
+    @Query("SELECT p FROM PaymentDetails p WHERE p.id > :afterId AND p.createdAt >= :from AND p.createdAt < :to "
+            + "AND p.paymentStatus IN :paymentStatuses AND p.deliveryStatus IN :deliveryStatuses "
+            + "AND p.merchantEmail IN :merchantEmails ORDER BY p.id")
+    List<PaymentDetails> findReplayChunkForMerchants(@Param("afterId") long afterId,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to,
+                                                     @Param("paymentStatuses") List<String> paymentStatuses,
+                                                     @Param("deliveryStatuses") List<String> deliveryStatuses,
+                                                     @Param("merchantEmails") List<String> merchantEmails,
+                                                     Pageable page);
+    
+    interface ScheduledDelivery {
+        Long getId();
+        
+        String getTransactionId();
+        
+        LocalDateTime getNextAttemptAt();
+    }
 }
-
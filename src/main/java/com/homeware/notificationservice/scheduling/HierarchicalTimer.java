@@ -0,0 +1,113 @@
+package com.homeware.notificationservice.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Timer built on hierarchical timing wheels (the design used by Kafka's purgatory). Adding or
+ * cancelling a task is O(1). A single reaper thread waits on a {@link DelayQueue} of buckets, not
+ * tasks, so the queue stays small even with millions of pending tasks. Expired tasks are handed to
+ * {@code taskExecutor}; the reaper never runs them itself.
+ */
+@Slf4j
+public class HierarchicalTimer {
+
+    private static final long REAPER_POLL_MS = 200;
+
+    private final Executor taskExecutor;
+    private final DelayQueue<TimerTaskList> delayQueue = new DelayQueue<>();
+    private final AtomicInteger taskCounter = new AtomicInteger();
+    private final TimingWheel timingWheel;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Thread reaper;
+    private volatile boolean running = true;
+
+    public HierarchicalTimer(String name, long tickMs, int wheelSize, Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+        this.timingWheel = new TimingWheel(tickMs, wheelSize, nowMs(), taskCounter, delayQueue);
+        this.reaper = new Thread(this::reap, name + "-reaper");
+        this.reaper.setDaemon(true);
+        this.reaper.start();
+    }
+
+    public void add(TimerTask task) {
+        lock.readLock().lock();
+        try {
+            addEntry(new TimerTaskList.Entry(task, task.getDelayMs() + nowMs()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of tasks waiting in the wheels.
+     */
+    public int size() {
+        return taskCounter.get();
+    }
+
+    public void shutdown() {
+        running = false;
+        reaper.interrupt();
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for the next bucket to expire, then advances the wheels and
+     * flushes every bucket that is due.
+     *
+     * @return true if any bucket expired
+     */
+    boolean advanceClock(long timeoutMs) throws InterruptedException {
+        TimerTaskList bucket = delayQueue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            while (bucket != null) {
+                timingWheel.advanceClock(bucket.getExpiration());
+                bucket.flush(this::addEntry);
+                bucket = delayQueue.poll();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    private void addEntry(TimerTaskList.Entry entry) {
+        // The wheel's clock only moves when a bucket expires, so check a due deadline against real time too
+        if (entry.expirationMs <= nowMs()) {
+            if (!entry.cancelled()) {
+                taskExecutor.execute(entry.task);
+            }
+            return;
+        }
+        // Rejected by the wheel means expired (run it now) or cancelled (drop it)
+        if (!timingWheel.add(entry) && !entry.cancelled()) {
+            taskExecutor.execute(entry.task);
+        }
+    }
+
+    private void reap() {
+        while (running) {
+            try {
+                advanceClock(REAPER_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Timer reaper failed to run expired tasks", e);
+            }
+        }
+    }
+
+    static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
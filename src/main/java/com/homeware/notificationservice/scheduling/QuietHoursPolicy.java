@@ -0,0 +1,77 @@
+package com.homeware.notificationservice.scheduling;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decides when a non-urgent notification may be sent, given the merchant's quiet hours.
+ * Windows may wrap midnight (e.g. 22:00-08:00) and are evaluated in the merchant's own zone.
+ */
+public class QuietHoursPolicy {
+
+    private final Window defaults;
+    private final Map<String, Window> merchants = new HashMap<>();
+    private final ZoneId serverZone;
+
+    public QuietHoursPolicy(ScheduleProperties.QuietHours quietHours, ZoneId serverZone) {
+        this.defaults = Window.of(quietHours.getDefaults());
+        quietHours.getMerchants().forEach((email, window) ->
+                merchants.put(email.trim().toLowerCase(Locale.ROOT), Window.of(window)));
+        this.serverZone = serverZone;
+    }
+
+    /**
+     * @param at server-local time the notification would otherwise be sent
+     * @return {@code at} if it is outside the merchant's quiet window, otherwise the end of that window
+     */
+    public LocalDateTime releaseTime(String merchantEmail, LocalDateTime at) {
+        Window window = merchantEmail != null
+                ? merchants.getOrDefault(merchantEmail.trim().toLowerCase(Locale.ROOT), defaults)
+                : defaults;
+        if (window.disabled()) {
+            return at;
+        }
+
+        ZonedDateTime local = at.atZone(serverZone).withZoneSameInstant(window.zone);
+        LocalTime time = local.toLocalTime();
+        boolean quiet = window.start.isBefore(window.end)
+                ? !time.isBefore(window.start) && time.isBefore(window.end)
+                : !time.isBefore(window.start) || time.isBefore(window.end);
+        if (!quiet) {
+            return at;
+        }
+
+        ZonedDateTime release = local.with(window.end);
+        if (!release.isAfter(local)) {
+            release = release.plusDays(1);
+        }
+        return release.withZoneSameInstant(serverZone).toLocalDateTime();
+    }
+
+    private static final class Window {
+
+        private final LocalTime start;
+        private final LocalTime end;
+        private final ZoneId zone;
+
+        private Window(LocalTime start, LocalTime end, ZoneId zone) {
+            this.start = start;
+            this.end = end;
+            this.zone = zone;
+        }
+
+        static Window of(ScheduleProperties.Window window) {
+            return new Window(LocalTime.parse(window.getStart()), LocalTime.parse(window.getEnd()),
+                    ZoneId.of(window.getZone()));
+        }
+
+        boolean disabled() {
+            return start.equals(end);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.homeware.notificationservice.scheduling;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+@Configuration
+@EnableConfigurationProperties(ScheduleProperties.class)
+public class ScheduleConfig {
+
+    // Delivery times are stored as LocalDateTimes, so everything that creates or compares them reads this clock
+    @Bean
+    public Clock deliveryClock(ScheduleProperties properties) {
+        String zone = properties.getZone();
+        return Clock.system(zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone));
+    }
+
+    @Bean
+    public QuietHoursPolicy quietHoursPolicy(ScheduleProperties properties, Clock deliveryClock) {
+        return new QuietHoursPolicy(properties.getQuietHours(), deliveryClock.getZone());
+    }
+}
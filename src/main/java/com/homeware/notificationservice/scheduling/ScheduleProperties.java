@@ -0,0 +1,52 @@
+package com.homeware.notificationservice.scheduling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "notification.schedule")
+public class ScheduleProperties {
+
+    private long tickMs = 1000;
+
+    private int wheelSize = 60;
+
+    /** Only rows due within this window are held in memory; later ones stay in the database until then. */
+    private long horizonMinutes = 60;
+
+    private long refillIntervalMs = 60000;
+
+    private int refillBatchSize = 1000;
+
+    /** Rows still SCHEDULED this long after their time (e.g. the node holding them died) are fired by any node. */
+    private long recoveryGraceSeconds = 120;
+
+    private int fireThreads = 4;
+
+    /**
+     * Zone of every delivery time: REST {@code sendAt} values, gRPC timestamps once converted, and the stored
+     * {@code next_attempt_at}. Empty uses the JVM's default zone.
+     */
+    private String zone = "";
+
+    private QuietHours quietHours = new QuietHours();
+
+    @Data
+    public static class QuietHours {
+        private Window defaults = new Window();
+
+        /** Per-merchant windows keyed by merchant email, e.g. {@code merchants[ops@shop.com].start=20:00}. */
+        private Map<String, Window> merchants = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Window {
+        /** Start of the quiet window (HH:mm); equal start and end disables it. */
+        private String start = "00:00";
+        private String end = "00:00";
+        private String zone = "UTC";
+    }
+}
@@ -0,0 +1,40 @@
+package com.homeware.notificationservice.scheduling;
+
+/**
+ * A task for {@link HierarchicalTimer}. The delay is fixed at construction; {@link #cancel()} unlinks
+ * the task from its bucket in O(1).
+ */
+public abstract class TimerTask implements Runnable {
+
+    private final long delayMs;
+    private TimerTaskList.Entry entry;
+
+    protected TimerTask(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    public long getDelayMs() {
+        return delayMs;
+    }
+
+    public void cancel() {
+        synchronized (this) {
+            if (entry != null) {
+                entry.remove();
+            }
+            entry = null;
+        }
+    }
+
+    synchronized void setEntry(TimerTaskList.Entry newEntry) {
+        // A task re-inserted into a lower wheel gets a new entry; drop the old one first
+        if (entry != null && entry != newEntry) {
+            entry.remove();
+        }
+        entry = newEntry;
+    }
+
+    synchronized TimerTaskList.Entry getEntry() {
+        return entry;
+    }
+}
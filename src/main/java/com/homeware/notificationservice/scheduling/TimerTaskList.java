@@ -0,0 +1,125 @@
+package com.homeware.notificationservice.scheduling;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One bucket of a {@link TimingWheel}: a circular doubly linked list of tasks that expire in the same tick.
+ * The bucket itself, not each task, sits in the timer's {@code DelayQueue}, so the queue only ever holds
+ * as many elements as there are non-empty buckets.
+ */
+class TimerTaskList implements Delayed {
+
+    private final AtomicInteger taskCounter;
+    private final Entry root = new Entry(null, -1L);
+    private final AtomicLong expiration = new AtomicLong(-1L);
+
+    TimerTaskList(AtomicInteger taskCounter) {
+        this.taskCounter = taskCounter;
+        root.next = root;
+        root.prev = root;
+    }
+
+    /**
+     * @return true if the expiration changed, i.e. the bucket was reused and must be re-queued
+     */
+    boolean setExpiration(long expirationMs) {
+        return expiration.getAndSet(expirationMs) != expirationMs;
+    }
+
+    long getExpiration() {
+        return expiration.get();
+    }
+
+    void add(Entry entry) {
+        boolean done = false;
+        while (!done) {
+            // Unlink from any other list first, outside our own lock, to avoid lock-order deadlocks
+            entry.remove();
+
+            synchronized (this) {
+                synchronized (entry) {
+                    if (entry.list == null) {
+                        Entry tail = root.prev;
+                        entry.next = root;
+                        entry.prev = tail;
+                        entry.list = this;
+                        tail.next = entry;
+                        root.prev = entry;
+                        taskCounter.incrementAndGet();
+                        done = true;
+                    }
+                }
+            }
+        }
+    }
+
+    synchronized void remove(Entry entry) {
+        synchronized (entry) {
+            if (entry.list == this) {
+                entry.next.prev = entry.prev;
+                entry.prev.next = entry.next;
+                entry.next = null;
+                entry.prev = null;
+                entry.list = null;
+                taskCounter.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes every entry and hands it to {@code action}, which re-inserts it into a lower wheel or runs it.
+     */
+    synchronized void flush(Consumer<Entry> action) {
+        Entry head = root.next;
+        while (head != root) {
+            remove(head);
+            action.accept(head);
+            head = root.next;
+        }
+        expiration.set(-1L);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(Math.max(getExpiration() - HierarchicalTimer.nowMs(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(getExpiration(), ((TimerTaskList) other).getExpiration());
+    }
+
+    static final class Entry {
+
+        volatile TimerTaskList list;
+        Entry next;
+        Entry prev;
+        final TimerTask task;
+        final long expirationMs;
+
+        Entry(TimerTask task, long expirationMs) {
+            this.task = task;
+            this.expirationMs = expirationMs;
+            if (task != null) {
+                task.setEntry(this);
+            }
+        }
+
+        boolean cancelled() {
+            return task.getEntry() != this;
+        }
+
+        void remove() {
+            TimerTaskList currentList = list;
+            // The entry may move to another list concurrently; retry until it is detached
+            while (currentList != null) {
+                currentList.remove(this);
+                currentList = list;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.homeware.notificationservice.scheduling;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One level of a hierarchical timing wheel: {@code wheelSize} buckets of {@code tickMs} each.
+ * Deadlines beyond this wheel's span go to an overflow wheel whose tick is this wheel's whole span,
+ * created on demand. As the clock advances, an overflow bucket expires and its tasks are re-inserted
+ * into finer wheels until they land in a bucket that expires on their own tick.
+ * <p>
+ * Insert and expiry are O(1) per task regardless of how many tasks are pending. Not thread-safe on its
+ * own; {@link HierarchicalTimer} guards it with a read/write lock.
+ */
+class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final AtomicInteger taskCounter;
+    private final DelayQueue<TimerTaskList> queue;
+    private final TimerTaskList[] buckets;
+
+    // Rounded down to a multiple of tickMs; everything before it has expired
+    private long currentTimeMs;
+
+    private volatile TimingWheel overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs, AtomicInteger taskCounter, DelayQueue<TimerTaskList> queue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.taskCounter = taskCounter;
+        this.queue = queue;
+        this.buckets = new TimerTaskList[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new TimerTaskList(taskCounter);
+        }
+        this.currentTimeMs = startMs - (startMs % tickMs);
+    }
+
+    /**
+     * @return false if the entry was cancelled or has already expired and should run now
+     */
+    boolean add(TimerTaskList.Entry entry) {
+        long expiration = entry.expirationMs;
+        if (entry.cancelled()) {
+            return false;
+        }
+        if (expiration < currentTimeMs + tickMs) {
+            return false;
+        }
+        if (expiration < currentTimeMs + interval) {
+            long virtualId = expiration / tickMs;
+            TimerTaskList bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(entry);
+            // Only queue the bucket when it starts a new rotation; already-queued buckets just gain a task
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+        if (overflowWheel == null) {
+            addOverflowWheel();
+        }
+        return overflowWheel.add(entry);
+    }
+
+    void advanceClock(long timeMs) {
+        if (timeMs >= currentTimeMs + tickMs) {
+            currentTimeMs = timeMs - (timeMs % tickMs);
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTimeMs);
+            }
+        }
+    }
+
+    private synchronized void addOverflowWheel() {
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(interval, wheelSize, currentTimeMs, taskCounter, queue);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.homeware.notificationservice.service;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.exception.RecipientSuppressedException;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.scheduling.HierarchicalTimer;
+import com.homeware.notificationservice.scheduling.QuietHoursPolicy;
+import com.homeware.notificationservice.scheduling.ScheduleProperties;
+import com.homeware.notificationservice.scheduling.TimerTask;
+import com.homeware.notificationservice.sharding.ShardContext;
+import com.homeware.notificationservice.sharding.ShardRing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds notifications until their send time: an explicit {@code sendAt} on the payment, or the end of the
+ * merchant's quiet hours for SUCCESS receipts. FAILED alerts are never held for quiet hours.
+ * <p>
+ * The schedule is durable on the payment row ({@code delivery_status = 'SCHEDULED'}, send time in
+ * {@code next_attempt_at}). Rows due within {@code horizon-minutes} are also kept in an in-memory
+ * {@link HierarchicalTimer}, so insert and fire are O(1) and nothing polls the table for due rows.
+ * A periodic refill loads each new slice of the horizon with one keyset scan, and picks up rows a dead
+ * node was holding once they are {@code recovery-grace-seconds} overdue.
+ * <p>
+ * All send times are LocalDateTimes in the zone of the delivery {@link Clock} ({@code notification.schedule.zone}).
+ * <p>
+ * Every node may hold the same row; {@link PaymentDetailsRepository#markDue} lets exactly one of them send it.
+ */
+@Slf4j
+@Component
+public class DeliveryScheduler {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final PaymentDetailsRepository paymentDetailsRepository;
+    private final EmailNotificationService emailNotificationService;
+    private final ObjectProvider<ShardRing> shardRing;
+    private final QuietHoursPolicy quietHoursPolicy;
+    private final ScheduleProperties properties;
+    private final Clock clock;
+    private final ExecutorService firePool;
+    private final HierarchicalTimer timer;
+    // Transaction IDs currently in the wheel, so refills and ingest never add a row twice
+    private final Set<String> inWheel = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime loadedUntil = BEGINNING;
+
+    public DeliveryScheduler(PaymentDetailsRepository paymentDetailsRepository,
+                             EmailNotificationService emailNotificationService,
+                             ObjectProvider<ShardRing> shardRing,
+                             QuietHoursPolicy quietHoursPolicy,
+                             ScheduleProperties properties,
+                             Clock deliveryClock,
+                             MeterRegistry meterRegistry) {
+        this.paymentDetailsRepository = paymentDetailsRepository;
+        this.emailNotificationService = emailNotificationService;
+        this.shardRing = shardRing;
+        this.quietHoursPolicy = quietHoursPolicy;
+        this.properties = properties;
+        this.clock = deliveryClock;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.firePool = Executors.newFixedThreadPool(properties.getFireThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-delivery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer = new HierarchicalTimer("scheduled-delivery", properties.getTickMs(), properties.getWheelSize(), firePool);
+
+        Gauge.builder("notification.schedule.pending", timer, HierarchicalTimer::size)
+                .description("Scheduled notifications waiting in the in-memory timing wheel")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdown();
+        firePool.shutdownNow();
+    }
+
+    /**
+     * @return when the notification should be sent, or null to send it now
+     */
+    public LocalDateTime resolveSendAt(PaymentDetails paymentDetails) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (paymentDetails.getSendAt() != null) {
+            return paymentDetails.getSendAt().isAfter(now) ? paymentDetails.getSendAt() : null;
+        }
+        if (!"SUCCESS".equalsIgnoreCase(paymentDetails.getPaymentStatus())) {
+            return null;
+        }
+        LocalDateTime release = quietHoursPolicy.releaseTime(paymentDetails.getMerchantEmail(), now);
+        return release.isAfter(now) ? release : null;
+    }
+
+    /**
+     * Called after a SCHEDULED row is saved. Near-term rows go straight into the wheel; later ones are
+     * loaded by the refill that brings them inside the horizon.
+     */
+    public void schedule(String transactionId, LocalDateTime sendAt) {
+        if (!sendAt.isAfter(LocalDateTime.now(clock).plusMinutes(properties.getHorizonMinutes()))) {
+            enqueue(transactionId, sendAt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.schedule.refill-interval-ms:60000}")
+    public void refill() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime horizon = now.plusMinutes(properties.getHorizonMinutes());
+        LocalDateTime from = loadedUntil;
+        LocalDateTime overdue = now.minusSeconds(properties.getRecoveryGraceSeconds());
+
+        ShardRing ring = shardRing.getIfAvailable();
+        // Without sharding there is a single database; a null shard leaves routing untouched
+        List<String> shards = ring != null ? ring.getShardIds() : Collections.singletonList(null);
+        int loaded = 0;
+        for (String shard : shards) {
+            loaded += ShardContext.callOn(shard, () -> {
+                // Rows a dead node was holding; rows this node still holds are skipped by inWheel
+                int count = load(BEGINNING, overdue);
+                return count + load(from, horizon);
+            });
+        }
+        loadedUntil = horizon;
+
+        if (loaded > 0) {
+            log.info("Loaded {} scheduled notification(s) into the timing wheel ({} pending)", loaded, timer.size());
+        }
+    }
+
+    private int load(LocalDateTime after, LocalDateTime dueBefore) {
+        int loaded = 0;
+        LocalDateTime afterTime = after;
+        long afterId = after == BEGINNING ? 0 : Long.MAX_VALUE;
+        List<PaymentDetailsRepository.ScheduledDelivery> page;
+        do {
+            page = paymentDetailsRepository.findScheduledDeliveries(afterTime, afterId, dueBefore,
+                    properties.getRefillBatchSize());
+            for (PaymentDetailsRepository.ScheduledDelivery row : page) {
+                if (enqueue(row.getTransactionId(), row.getNextAttemptAt())) {
+                    loaded++;
+                }
+                afterTime = row.getNextAttemptAt();
+                afterId = row.getId();
+            }
+        } while (page.size() == properties.getRefillBatchSize());
+        return loaded;
+    }
+
+    private boolean enqueue(String transactionId, LocalDateTime sendAt) {
+        if (!inWheel.add(transactionId)) {
+            return false;
+        }
+        long delayMs = Math.max(Duration.between(LocalDateTime.now(clock), sendAt).toMillis(), 0);
+        timer.add(new FireTask(delayMs, transactionId));
+        return true;
+    }
+
+    void fire(String transactionId) {
+        inWheel.remove(transactionId);
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (paymentDetailsRepository.markDue(transactionId, now) == 0) {
+            // Another node fired it first, or it was never scheduled here
+            return;
+        }
+
+        // From here the row is PENDING: if this node dies or the send fails, RedeliverySweeper retries it
+        paymentDetailsRepository.findByTransactionId(transactionId).ifPresent(row -> {
+            try {
+                emailNotificationService.sendPaymentNotification(RedeliverySweeper.convertToDto(row));
+                paymentDetailsRepository.markDelivered(transactionId, LocalDateTime.now(clock));
+                log.info("Scheduled notification sent for transaction: {}", transactionId);
+            } catch (RecipientSuppressedException e) {
+                paymentDetailsRepository.markSuppressed(transactionId, LocalDateTime.now(clock));
+            } catch (NotificationDeferredException e) {
+                log.warn("Scheduled notification for transaction {} deferred: {}", transactionId, e.getMessage());
+            } catch (Exception e) {
+                log.warn("Scheduled notification for transaction {} failed, leaving it to redelivery: {}",
+                        transactionId, e.getMessage());
+            }
+        });
+    }
+
+    private final class FireTask extends TimerTask {
+
+        private final String transactionId;
+
+        FireTask(long delayMs, String transactionId) {
+            super(delayMs);
+            this.transactionId = transactionId;
+        }
+
+        @Override
+        public void run() {
+            try {
+                fire(transactionId);
+            } catch (RuntimeException e) {
+                // The row is still SCHEDULED; the recovery pass of a later refill fires it again
+                inWheel.remove(transactionId);
+                log.error("Failed to fire scheduled notification for transaction: {}", transactionId, e);
+            }
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.homeware.notificationservice.service;
 
 import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.exception.RecipientSuppressedException;
+import com.homeware.notificationservice.suppression.SuppressionList;
+import com.homeware.notificationservice.tracing.Spans;
+import io.opentelemetry.api.trace.Tracer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
@@ -15,31 +25,97 @@ import java.time.format.DateTimeFormatter;
 public class EmailNotificationService {
 
     private final JavaMailSender mailSender;
+    private final NotificationDispatcher notificationDispatcher;
+    private final SuppressionList suppressionList;
+    private final Tracer tracer;
+
+    // Past this a send no worker has started is withdrawn and deferred; keep it below notification.redelivery.lease-seconds
+    @Value("${notification.dispatch.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
 
     public void sendPaymentNotification(PaymentDetails paymentDetails) {
+        // Hard-bounced and unsubscribed addresses are never sent to
+        if (suppressionList.contains(paymentDetails.getMerchantEmail())) {
+            log.info("Skipping payment {} email to suppressed merchant: {}", paymentDetails.getPaymentStatus(), paymentDetails.getMerchantEmail());
+            throw new RecipientSuppressedException("Recipient is on the suppression list");
+        }
+        
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(paymentDetails.getMerchantEmail());
-            
-            if ("SUCCESS".equalsIgnoreCase(paymentDetails.getPaymentStatus())) {
-                message.setSubject("Payment Success - Transaction " + paymentDetails.getTransactionId());
-                message.setText(buildPaymentSuccessEmailBody(paymentDetails));
-            } else if ("FAILED".equalsIgnoreCase(paymentDetails.getPaymentStatus())) {
-                message.setSubject("Payment Failed - Transaction " + paymentDetails.getTransactionId());
-                message.setText(buildPaymentFailedEmailBody(paymentDetails));
-            } else {
-                throw new IllegalArgumentException("Invalid payment status: " + paymentDetails.getPaymentStatus());
-            }
+            SimpleMailMessage message = buildMessage(paymentDetails);
             
-            message.setFrom("noreply@homeware.com");
-            mailSender.send(message);
+            // FAILED alerts get their own lane so they never queue behind SUCCESS receipts
+            NotificationDispatcher.Lane lane = "FAILED".equalsIgnoreCase(paymentDetails.getPaymentStatus())
+                    ? NotificationDispatcher.Lane.FAILED : NotificationDispatcher.Lane.SUCCESS;
+            awaitSend(paymentDetails, notificationDispatcher.dispatch(lane, () -> Spans.runInSpan(tracer, "smtp.send",
+                    paymentDetails.getTransactionId(), () -> mailSender.send(message))));
             log.info("Payment {} email sent to merchant: {}", paymentDetails.getPaymentStatus(), paymentDetails.getMerchantEmail());
+        } catch (NotificationDeferredException e) {
+            log.warn("Payment {} email to merchant: {} deferred: {}", paymentDetails.getPaymentStatus(), paymentDetails.getMerchantEmail(), e.getMessage());
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending email notification", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NotificationDeferredException deferred) {
+                log.warn("Payment {} email to merchant: {} deferred: {}", paymentDetails.getPaymentStatus(), paymentDetails.getMerchantEmail(), deferred.getMessage());
+                throw deferred;
+            }
+            log.error("Failed to send payment {} email to merchant: {}", paymentDetails.getPaymentStatus(), paymentDetails.getMerchantEmail(), e.getCause());
+            throw new RuntimeException("Failed to send email notification", e.getCause());
         } catch (Exception e) {
             log.error("Failed to send payment {} email to merchant: {}", paymentDetails.getPaymentStatus(), paymentDetails.getMerchantEmail(), e);
             throw new RuntimeException("Failed to send email notification", e);
         }
     }
 
+    /**
+     * Waits for a queued send. A send still queued after {@code sendTimeoutMs} is withdrawn and reported as deferred,
+     * so it is never sent behind the caller's back. A send a worker has already started is waited for; it is bounded
+     * by the SMTP client timeouts, and its real outcome decides the row's status.
+     */
+    private void awaitSend(PaymentDetails paymentDetails, CompletableFuture<Void> sending)
+            throws InterruptedException, ExecutionException {
+        try {
+            sending.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (sending.cancel(false)) {
+                log.warn("Payment {} email to merchant: {} not picked up within {}ms, deferring", paymentDetails.getPaymentStatus(), paymentDetails.getMerchantEmail(), sendTimeoutMs);
+                throw new NotificationDeferredException("Timed out waiting for the notification dispatcher");
+            }
+            sending.get();
+        }
+    }
+
+    /**
+     * Builds the email exactly as {@link #sendPaymentNotification} would send it, without sending it.
+     * Used by replay dry runs.
+     *
+     * @throws RecipientSuppressedException if the merchant address is on the suppression list
+     */
+    public SimpleMailMessage renderPaymentNotification(PaymentDetails paymentDetails) {
+        if (suppressionList.contains(paymentDetails.getMerchantEmail())) {
+            throw new RecipientSuppressedException("Recipient is on the suppression list");
+        }
+        return buildMessage(paymentDetails);
+    }
+
+    private SimpleMailMessage buildMessage(PaymentDetails paymentDetails) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(paymentDetails.getMerchantEmail());
+        
+        // PaymentDetailsValidator has already rejected any status other than SUCCESS or FAILED at ingest
+        if ("FAILED".equalsIgnoreCase(paymentDetails.getPaymentStatus())) {
+            message.setSubject("Payment Failed - Transaction " + paymentDetails.getTransactionId());
+            message.setText(buildPaymentFailedEmailBody(paymentDetails));
+        } else {
+            message.setSubject("Payment Success - Transaction " + paymentDetails.getTransactionId());
+            message.setText(buildPaymentSuccessEmailBody(paymentDetails));
+        }
+        
+        message.setFrom("noreply@homeware.com");
+        return message;
+    }
+
     private String buildPaymentSuccessEmailBody(PaymentDetails paymentDetails) {
         StringBuilder body = new StringBuilder();
         body.append("Dear ").append(paymentDetails.getMerchantName()).append(",\n\n");
@@ -0,0 +1,256 @@
+package com.homeware.notificationservice.service;
+
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.context.Context;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Priority-aware mail dispatcher. FAILED and SUCCESS notifications wait in separate bounded lanes
+ * and a fixed pool of workers (one per SMTP connection we are willing to hold) drains them with
+ * weighted round-robin: up to {@code failedWeight} FAILED messages are sent for every SUCCESS
+ * message while both lanes have work.
+ * <p>
+ * Under overload SUCCESS mail is always deferred first: it is rejected as soon as its own lane
+ * is full or the FAILED backlog crosses {@code successShedThreshold}, while FAILED submissions
+ * wait up to {@code failedOfferTimeoutMs} for room. Deferred notifications stay PENDING in the
+ * database and are picked up by the redelivery sweeper.
+ * <p>
+ * On shutdown, queued notifications are not sent: their futures fail with
+ * {@link NotificationDeferredException} so callers return and the sweeper sends them later.
+ * Deliveries already running get {@code shutdownGraceMs} to finish.
+ * <p>
+ * A caller that stops waiting can withdraw its delivery with {@code cancel} on the returned future.
+ * This only succeeds while no worker has picked the delivery up, so a cancelled delivery is never
+ * sent; once a worker has started it, {@code cancel} returns false and the send runs to completion.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    public enum Lane { FAILED, SUCCESS }
+
+    private final Map<Lane, BlockingQueue<Task>> lanes = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> deferredCounters = new EnumMap<>(Lane.class);
+    private final Semaphore queued = new Semaphore(0);
+    private final int workers;
+    private final int failedWeight;
+    private final int successShedThreshold;
+    private final long failedOfferTimeoutMs;
+    private final long shutdownGraceMs;
+    private ExecutorService workerPool;
+    private volatile boolean running;
+    private int failedCredits; // guarded by this
+
+    public NotificationDispatcher(MeterRegistry meterRegistry,
+                                  @Value("${notification.dispatch.workers:4}") int workers,
+                                  @Value("${notification.dispatch.failed-capacity:500}") int failedCapacity,
+                                  @Value("${notification.dispatch.success-capacity:200}") int successCapacity,
+                                  @Value("${notification.dispatch.failed-weight:4}") int failedWeight,
+                                  @Value("${notification.dispatch.success-shed-threshold:250}") int successShedThreshold,
+                                  @Value("${notification.dispatch.failed-offer-timeout-ms:2000}") long failedOfferTimeoutMs,
+                                  @Value("${notification.dispatch.shutdown-grace-ms:10000}") long shutdownGraceMs) {
+        this.workers = workers;
+        this.failedWeight = failedWeight;
+        this.successShedThreshold = successShedThreshold;
+        this.failedOfferTimeoutMs = failedOfferTimeoutMs;
+        this.shutdownGraceMs = shutdownGraceMs;
+        this.failedCredits = failedWeight;
+        lanes.put(Lane.FAILED, new ArrayBlockingQueue<>(failedCapacity));
+        lanes.put(Lane.SUCCESS, new ArrayBlockingQueue<>(successCapacity));
+
+        for (Lane lane : Lane.values()) {
+            String tag = lane.name().toLowerCase();
+            BlockingQueue<Task> queue = lanes.get(lane);
+            Gauge.builder("notification.dispatch.queue.depth", queue, BlockingQueue::size)
+                    .description("Notifications waiting for a dispatch worker")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("notification.dispatch.wait")
+                    .description("Time a notification spent queued before a worker picked it up")
+                    .tag("lane", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+            deferredCounters.put(lane, Counter.builder("notification.dispatch.deferred")
+                    .description("Notifications deferred to the redelivery sweeper because the lane was saturated")
+                    .tag("lane", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        running = true;
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::drain);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        int abandoned = failQueued();
+        // Wake idle workers so they see running == false and exit
+        queued.release(workers);
+        workerPool.shutdown();
+        try {
+            if (!workerPool.awaitTermination(shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+                workerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workerPool.shutdownNow();
+        }
+        if (abandoned > 0) {
+            log.info("Dispatcher stopped; {} queued notification(s) left for the redelivery sweeper", abandoned);
+        }
+    }
+
+    private int failQueued() {
+        int failed = 0;
+        for (BlockingQueue<Task> queue : lanes.values()) {
+            Task task;
+            while ((task = queue.poll()) != null) {
+                if (task.claimed.compareAndSet(false, true)) {
+                    task.future.completeExceptionally(
+                            new NotificationDeferredException("Notification dispatcher is shutting down"));
+                    failed++;
+                }
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Queues a delivery on the given lane. The returned future completes once a worker has run it;
+     * cancelling it withdraws the delivery if no worker has started it yet.
+     *
+     * @throws NotificationDeferredException if the lane has no room and the delivery should be retried later
+     */
+    public CompletableFuture<Void> dispatch(Lane lane, Runnable delivery) {
+        if (!running) {
+            throw new NotificationDeferredException("Notification dispatcher is shutting down");
+        }
+        // Carry the caller's trace context onto the worker thread
+        Task task = new Task(lane, Context.current().wrap(delivery));
+        BlockingQueue<Task> queue = lanes.get(lane);
+        boolean accepted;
+        if (lane == Lane.SUCCESS) {
+            accepted = lanes.get(Lane.FAILED).size() < successShedThreshold && queue.offer(task);
+        } else {
+            try {
+                accepted = queue.offer(task, failedOfferTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        }
+
+        if (!accepted) {
+            deferredCounters.get(lane).increment();
+            throw new NotificationDeferredException("Notification dispatch lane " + lane + " is saturated");
+        }
+        queued.release();
+        // stop() may have drained the lanes between the check above and the offer
+        if (!running && queue.remove(task)) {
+            throw new NotificationDeferredException("Notification dispatcher is shutting down");
+        }
+        return task.future;
+    }
+
+    public int queueDepth(Lane lane) {
+        return lanes.get(lane).size();
+    }
+
+    private void drain() {
+        while (running) {
+            Task task;
+            try {
+                queued.acquire();
+                task = next();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task != null) {
+                task.run();
+            }
+        }
+    }
+
+    private synchronized Task next() {
+        Task failed = lanes.get(Lane.FAILED).peek();
+        Task success = lanes.get(Lane.SUCCESS).peek();
+        if (failed != null && (success == null || failedCredits > 0)) {
+            failedCredits = Math.max(failedCredits - 1, 0);
+            return lanes.get(Lane.FAILED).poll();
+        }
+        if (success != null) {
+            failedCredits = failedWeight;
+            return lanes.get(Lane.SUCCESS).poll();
+        }
+        return null;
+    }
+
+    private final class Task {
+        private final Lane lane;
+        private final Runnable delivery;
+        private final long enqueuedAt = System.nanoTime();
+        // Set by whoever takes the task first: a worker that runs it, or a caller or stop() that withdraws it
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Void> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                if (!claimed.compareAndSet(false, true)) {
+                    return false;
+                }
+                lanes.get(lane).remove(Task.this);
+                return super.cancel(false);
+            }
+        };
+
+        private Task(Lane lane, Runnable delivery) {
+            this.lane = lane;
+            this.delivery = delivery;
+        }
+
+        private void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            waitTimers.get(lane).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                delivery.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.homeware.notificationservice.service;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.DuplicateTransactionException;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.exception.RecipientSuppressedException;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.tracing.Spans;
+import com.homeware.notificationservice.validation.PaymentDetailsValidator;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Validation, persistence and notification for one incoming payment, shared by the REST and gRPC endpoints.
+ * Rejections are thrown (validation, duplicate, database and mail errors); each transport maps them to its
+ * own response shape.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentNotificationProcessor {
+
+    public enum Outcome {
+        /** Saved and the email was sent. */
+        DELIVERED,
+        /** Saved as PENDING; the dispatch lane was full and RedeliverySweeper will send it. */
+        QUEUED,
+        /** Saved, but the merchant address is on the suppression list so no email was sent. */
+        SUPPRESSED,
+        /** Saved as SCHEDULED; DeliveryScheduler sends it at the requested time or after quiet hours. */
+        SCHEDULED
+    }
+
+    private final EmailNotificationService emailNotificationService;
+    private final PaymentDetailsRepository paymentDetailsRepository;
+    private final PaymentDetailsValidator paymentDetailsValidator;
+    private final DeliveryScheduler deliveryScheduler;
+    private final Tracer tracer;
+    private final Clock clock;
+
+    public Outcome process(PaymentDetails paymentDetails) {
+        // Field constraints, payment status and FAILED/failureReason, in one reflection-free pass
+        paymentDetailsValidator.validate(paymentDetails);
+
+        log.info("Received payment notification for transaction: {} with status: {}",
+                paymentDetails.getTransactionId(), paymentDetails.getPaymentStatus());
+        String transactionId = paymentDetails.getTransactionId();
+        Span.current().setAttribute(Spans.TRANSACTION_ID, transactionId);
+
+        // Check if transaction already exists
+        if (Spans.inSpan(tracer, "payment.duplicate_check", transactionId,
+                () -> paymentDetailsRepository.findByTransactionId(transactionId).isPresent())) {
+            // GlobalExceptionHandler logs duplicates with a rate limit; retry storms would flood WARN here
+            log.debug("Transaction ID {} already exists in database", transactionId);
+            throw new DuplicateTransactionException("Transaction ID already exists");
+        }
+
+        // Convert DTO to Entity and save to database
+        com.homeware.notificationservice.entity.PaymentDetails paymentEntity =
+                Spans.inSpan(tracer, "payment.convert", transactionId, () -> convertToEntity(paymentDetails));
+        LocalDateTime sendAt = deliveryScheduler.resolveSendAt(paymentDetails);
+        if (sendAt != null) {
+            // The row is the durable schedule; the timing wheel only holds it in memory
+            paymentEntity.setDeliveryStatus(com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_SCHEDULED);
+            paymentEntity.setNextAttemptAt(sendAt);
+        } else {
+            // Set here rather than defaulted on persist, so the sweeper compares it in the delivery clock's zone
+            paymentEntity.setNextAttemptAt(LocalDateTime.now(clock));
+        }
+        Spans.inSpan(tracer, "payment.save", transactionId, () -> paymentDetailsRepository.save(paymentEntity));
+        log.info("Payment details saved to database with ID: {}", paymentEntity.getId());
+        
+        if (sendAt != null) {
+            deliveryScheduler.schedule(transactionId, sendAt);
+            log.info("Notification for transaction {} scheduled for {}", transactionId, sendAt);
+            return Outcome.SCHEDULED;
+        }
+
+        // Send email notification
+        try {
+            emailNotificationService.sendPaymentNotification(paymentDetails);
+        } catch (NotificationDeferredException e) {
+            // Payment is persisted as PENDING; RedeliverySweeper sends it once the lane drains
+            log.warn("Notification for transaction {} deferred: {}", transactionId, e.getMessage());
+            return Outcome.QUEUED;
+        } catch (RecipientSuppressedException e) {
+            paymentDetailsRepository.markSuppressed(transactionId, LocalDateTime.now(clock));
+            return Outcome.SUPPRESSED;
+        }
+
+        // Rows left PENDING (e.g. node crashed before this point) are picked up by RedeliverySweeper
+        paymentDetailsRepository.markDelivered(paymentEntity.getTransactionId(), LocalDateTime.now(clock));
+
+        return Outcome.DELIVERED;
+    }
+
+    private com.homeware.notificationservice.entity.PaymentDetails convertToEntity(PaymentDetails dto) {
+        com.homeware.notificationservice.entity.PaymentDetails entity = new com.homeware.notificationservice.entity.PaymentDetails();
+        entity.setTransactionId(dto.getTransactionId());
+        entity.setMerchantEmail(dto.getMerchantEmail());
+        entity.setMerchantName(dto.getMerchantName());
+        entity.setAmount(dto.getAmount());
+        entity.setCurrency(dto.getCurrency());
+        entity.setPaymentMethod(dto.getPaymentMethod());
+        entity.setPaymentStatus(dto.getPaymentStatus().toUpperCase());
+        entity.setFailureReason(dto.getFailureReason());
+        entity.setCustomerEmail(dto.getCustomerEmail());
+        entity.setCustomerName(dto.getCustomerName());
+        entity.setTransactionDate(dto.getTransactionDate());
+        entity.setOrderId(dto.getOrderId());
+        entity.setDescription(dto.getDescription());
+        return entity;
+    }
+}
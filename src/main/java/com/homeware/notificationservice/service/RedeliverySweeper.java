@@ -0,0 +1,195 @@
+package com.homeware.notificationservice.service;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.exception.RecipientSuppressedException;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.sharding.ShardContext;
+import com.homeware.notificationservice.sharding.ShardRing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Re-sends notifications for payments that were saved but never confirmed as delivered,
+ * e.g. because the node crashed between the insert and the SMTP call.
+ * <p>
+ * Work is claimed with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so any number of replicas
+ * can run the sweeper at the same time without a leader election. The claim only leases the rows
+ * (pushes {@code next_attempt_at} forward) and commits; mail is sent outside any transaction and
+ * each outcome is recorded with its own update, so a slow SMTP server never holds row locks or a
+ * pooled connection. Rows leased by a node that dies are claimed again once the lease has expired.
+ * <p>
+ * Rows are sent one at a time and each send may wait up to the dispatcher's send timeout, so a claim
+ * takes no more rows than fit in one lease. Each row's lease is also renewed just before its send;
+ * a row whose lease was lost to another node is skipped rather than sent twice.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedeliverySweeper {
+
+    private final PaymentDetailsRepository paymentDetailsRepository;
+    private final EmailNotificationService emailNotificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ShardRing> shardRing;
+    // next_attempt_at is written in the delivery clock's zone by the scheduler and the ingest path
+    private final Clock clock;
+
+    @Value("${notification.redelivery.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.redelivery.claim-delay-seconds:120}")
+    private long claimDelaySeconds;
+
+    @Value("${notification.redelivery.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${notification.dispatch.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${notification.redelivery.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notification.redelivery.backoff-seconds:60}")
+    private long backoffSeconds;
+
+    @Value("${notification.redelivery.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Scheduled(fixedDelayString = "${notification.redelivery.interval-ms:30000}",
+            initialDelayString = "${notification.redelivery.initial-delay-ms:30000}")
+    public void sweep() {
+        ShardRing ring = shardRing.getIfAvailable();
+        // Without sharding there is a single database; a null shard leaves routing untouched
+        List<String> shards = ring != null ? ring.getShardIds() : Collections.singletonList(null);
+        for (String shard : shards) {
+            ShardContext.runOn(shard, this::sweepShard);
+        }
+    }
+
+    private void sweepShard() {
+        int total = 0;
+        int limit = claimLimit();
+        List<com.homeware.notificationservice.entity.PaymentDetails> claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> claimBatch(limit));
+            if (claimed == null) {
+                break;
+            }
+            for (com.homeware.notificationservice.entity.PaymentDetails row : claimed) {
+                if (renewLease(row)) {
+                    deliver(row);
+                }
+            }
+            total += claimed.size();
+        } while (claimed.size() == limit);
+
+        if (total > 0) {
+            log.info("Redelivery sweep processed {} undelivered notification(s){}", total,
+                    ShardContext.current() != null ? " on shard " + ShardContext.current() : "");
+        }
+    }
+
+    /**
+     * Rows per claim, so that the last row is still leased when its turn comes even if every send before it
+     * waits the full send timeout.
+     */
+    private int claimLimit() {
+        long fitInLease = leaseSeconds * 1000 / Math.max(sendTimeoutMs, 1) - 1;
+        return (int) Math.max(1, Math.min(batchSize, fitInLease));
+    }
+
+    private List<com.homeware.notificationservice.entity.PaymentDetails> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        // Rows younger than the claim delay may still be in flight on the node that inserted them
+        List<com.homeware.notificationservice.entity.PaymentDetails> batch =
+                paymentDetailsRepository.claimPendingDeliveries(now.minusSeconds(claimDelaySeconds), limit);
+
+        // The lease is flushed when this short transaction commits; other sweepers skip the rows until it expires
+        LocalDateTime leaseUntil = leaseFrom(now);
+        for (com.homeware.notificationservice.entity.PaymentDetails row : batch) {
+            row.setNextAttemptAt(leaseUntil);
+        }
+        return batch;
+    }
+
+    /**
+     * @return false if the row has lost its lease, i.e. it was delivered or claimed by another node meanwhile
+     */
+    private boolean renewLease(com.homeware.notificationservice.entity.PaymentDetails row) {
+        LocalDateTime leaseUntil = leaseFrom(LocalDateTime.now(clock));
+        if (paymentDetailsRepository.renewLease(row.getTransactionId(), row.getNextAttemptAt(), leaseUntil) == 0) {
+            log.debug("Skipping redelivery of transaction {}: its lease was lost", row.getTransactionId());
+            return false;
+        }
+        row.setNextAttemptAt(leaseUntil);
+        return true;
+    }
+
+    // The renewal matches the held lease by equality, so keep it at a precision the database stores exactly
+    private LocalDateTime leaseFrom(LocalDateTime now) {
+        return now.plusSeconds(leaseSeconds).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private void deliver(com.homeware.notificationservice.entity.PaymentDetails row) {
+        String transactionId = row.getTransactionId();
+        int attempts = (row.getDeliveryAttempts() != null ? row.getDeliveryAttempts() : 0) + 1;
+        try {
+            emailNotificationService.sendPaymentNotification(convertToDto(row));
+            paymentDetailsRepository.markDelivered(transactionId, LocalDateTime.now(clock));
+            log.info("Redelivered notification for transaction: {} on attempt {}", transactionId, attempts);
+        } catch (RecipientSuppressedException e) {
+            paymentDetailsRepository.markSuppressed(transactionId, LocalDateTime.now(clock));
+        } catch (NotificationDeferredException e) {
+            // Dispatcher is saturated; not a delivery failure, so it does not count as an attempt
+            LocalDateTime now = LocalDateTime.now(clock);
+            paymentDetailsRepository.deferDelivery(transactionId, now.plusSeconds(backoffSeconds), now);
+        } catch (Exception e) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            if (attempts >= maxAttempts) {
+                paymentDetailsRepository.markAbandoned(transactionId, attempts, now);
+                log.error("Giving up on notification for transaction: {} after {} attempts", transactionId, attempts, e);
+            } else {
+                LocalDateTime nextAttemptAt = now.plus(backoff(attempts));
+                paymentDetailsRepository.recordFailedAttempt(transactionId, attempts, now, nextAttemptAt);
+                log.warn("Redelivery attempt {} failed for transaction: {}, retrying at {}",
+                        attempts, transactionId, nextAttemptAt);
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long seconds = backoffSeconds << Math.min(attempts - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, maxBackoffSeconds));
+    }
+
+    static PaymentDetails convertToDto(com.homeware.notificationservice.entity.PaymentDetails entity) {
+        PaymentDetails dto = new PaymentDetails();
+        dto.setTransactionId(entity.getTransactionId());
+        dto.setMerchantEmail(entity.getMerchantEmail());
+        dto.setMerchantName(entity.getMerchantName());
+        dto.setAmount(entity.getAmount());
+        dto.setCurrency(entity.getCurrency());
+        dto.setPaymentMethod(entity.getPaymentMethod());
+        dto.setPaymentStatus(entity.getPaymentStatus());
+        dto.setFailureReason(entity.getFailureReason());
+        dto.setCustomerEmail(entity.getCustomerEmail());
+        dto.setCustomerName(entity.getCustomerName());
+        dto.setTransactionDate(entity.getTransactionDate());
+        dto.setOrderId(entity.getOrderId());
+        dto.setDescription(entity.getDescription());
+        return dto;
+    }
+}
@@ -0,0 +1,489 @@
+package com.homeware.notificationservice.service;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.exception.RecipientSuppressedException;
+import com.homeware.notificationservice.replay.ReplayJob;
+import com.homeware.notificationservice.replay.ReplayJobStore;
+import com.homeware.notificationservice.replay.ReplayProperties;
+import com.homeware.notificationservice.replay.ReplayRequest;
+import com.homeware.notificationservice.replay.TokenBucket;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.sharding.ShardContext;
+import com.homeware.notificationservice.sharding.ShardRing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Re-sends notifications for stored payments in bulk, e.g. after an SMTP outage or a template fix.
+ * <p>
+ * Each shard is read in keyset pages (by payment ID). A page is dispatched by a pool of
+ * {@code parallelism} workers that share a token bucket capping sends per second. Once the whole
+ * page has been handled, its last ID and the job's counters are checkpointed in {@code replay_job},
+ * so a stopped job resumes after the last finished page. Rows in an unfinished page may be sent
+ * twice; nothing is skipped.
+ * <p>
+ * The job's heartbeat and counters are also written on a timer rather than only per page, since a
+ * page stuck in deferral backoff can take longer than {@code stale-after-seconds}. When a heartbeat
+ * finds the job cancelled or claimed by another node, the workers give up on the current page and it
+ * is not checkpointed.
+ * <p>
+ * Replayed sends go through the same dispatch lanes as live traffic. A saturated lane defers the
+ * send, and the worker backs off and retries it rather than handing it to the redelivery sweeper.
+ */
+@Slf4j
+@Component
+public class ReplayEngine {
+
+    static final String DEFAULT_SHARD = "default";
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final List<String> PAYMENT_STATUSES = List.of("SUCCESS", "FAILED");
+    private static final List<String> DEFAULT_DELIVERY_STATUSES = List.of(
+            com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_DELIVERED,
+            com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_ABANDONED);
+    private static final Set<String> REPLAYABLE_DELIVERY_STATUSES = Set.of(
+            com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_DELIVERED,
+            com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_ABANDONED,
+            com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_SUPPRESSED);
+
+    private final PaymentDetailsRepository paymentDetailsRepository;
+    private final EmailNotificationService emailNotificationService;
+    private final ReplayJobStore replayJobStore;
+    private final ObjectProvider<ShardRing> shardRing;
+    private final ReplayProperties properties;
+    private final Clock clock;
+    private final ExecutorService jobPool;
+    private final ScheduledExecutorService heartbeats;
+    private final Counter sentCounter;
+    private final Counter unmarkedCounter;
+    private final Counter suppressedCounter;
+    private final Counter failedCounter;
+
+    public ReplayEngine(PaymentDetailsRepository paymentDetailsRepository,
+                        EmailNotificationService emailNotificationService,
+                        ReplayJobStore replayJobStore,
+                        ObjectProvider<ShardRing> shardRing,
+                        ReplayProperties properties,
+                        Clock deliveryClock,
+                        MeterRegistry meterRegistry) {
+        this.paymentDetailsRepository = paymentDetailsRepository;
+        this.emailNotificationService = emailNotificationService;
+        this.replayJobStore = replayJobStore;
+        this.shardRing = shardRing;
+        this.properties = properties;
+        this.clock = deliveryClock;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.jobPool = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "replay-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replay-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sentCounter = replayCounter(meterRegistry, "sent");
+        this.unmarkedCounter = replayCounter(meterRegistry, "unmarked");
+        this.suppressedCounter = replayCounter(meterRegistry, "suppressed");
+        this.failedCounter = replayCounter(meterRegistry, "failed");
+    }
+
+    private static Counter replayCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("notification.replay.rows")
+                .description("Payments handled by replay jobs")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Interrupted jobs keep their last checkpoint and can be resumed
+        jobPool.shutdownNow();
+        heartbeats.shutdownNow();
+    }
+
+    /**
+     * Records a new job and starts it in the background.
+     *
+     * @return the job, or empty if a shard rebalance is running
+     * @throws IllegalArgumentException if the request is invalid
+     */
+    public Optional<ReplayJob> start(ReplayRequest request) {
+        ReplayJob job = toJob(request);
+        job.setOwner(UUID.randomUUID().toString());
+        if (!replayJobStore.create(job)) {
+            log.warn("Replay job refused: a shard rebalance is running");
+            return Optional.empty();
+        }
+        log.info("Starting replay job {}{}: from={} to={} merchants={} paymentStatuses={} deliveryStatuses={}",
+                job.getId(), job.isDryRun() ? " (dry run)" : "", job.getFrom(), job.getTo(),
+                job.getMerchantEmails().size(), job.getPaymentStatuses(), job.getDeliveryStatuses());
+        jobPool.execute(() -> run(job));
+        return Optional.of(job);
+    }
+
+    /**
+     * Resumes a cancelled, failed or orphaned job from its checkpoints.
+     *
+     * @return the job, or empty if it does not exist or is not resumable (completed, running elsewhere, or a
+     *         shard rebalance is running)
+     */
+    public Optional<ReplayJob> resume(long jobId) {
+        String owner = UUID.randomUUID().toString();
+        LocalDateTime staleBefore = LocalDateTime.now(clock).minusSeconds(properties.getStaleAfterSeconds());
+        if (!replayJobStore.claim(jobId, owner, staleBefore)) {
+            return Optional.empty();
+        }
+        Optional<ReplayJob> job = replayJobStore.find(jobId);
+        job.ifPresent(claimed -> {
+            log.info("Resuming replay job {} from checkpoints {}", jobId, claimed.getCheckpoints());
+            jobPool.execute(() -> run(claimed));
+        });
+        return job;
+    }
+
+    private ReplayJob toJob(ReplayRequest request) {
+        ReplayJob job = new ReplayJob();
+        job.setFrom(request.getFrom());
+        job.setTo(request.getTo());
+        if (job.getFrom() != null && job.getTo() != null && !job.getFrom().isBefore(job.getTo())) {
+            throw new IllegalArgumentException("Replay 'from' must be before 'to'");
+        }
+
+        if (request.getMerchantEmails() != null) {
+            Set<String> merchants = new LinkedHashSet<>();
+            for (String email : request.getMerchantEmails()) {
+                if (email != null && !email.isBlank()) {
+                    merchants.add(email.trim());
+                }
+            }
+            job.setMerchantEmails(new ArrayList<>(merchants));
+        }
+
+        if (request.getPaymentStatus() != null) {
+            String paymentStatus = request.getPaymentStatus().toUpperCase(Locale.ROOT);
+            if (!PAYMENT_STATUSES.contains(paymentStatus)) {
+                throw new IllegalArgumentException("Invalid payment status: " + request.getPaymentStatus());
+            }
+            job.setPaymentStatuses(new ArrayList<>(List.of(paymentStatus)));
+        } else {
+            job.setPaymentStatuses(new ArrayList<>(PAYMENT_STATUSES));
+        }
+
+        if (request.getDeliveryStatuses() != null && !request.getDeliveryStatuses().isEmpty()) {
+            for (String deliveryStatus : request.getDeliveryStatuses()) {
+                String normalized = deliveryStatus.toUpperCase(Locale.ROOT);
+                // PENDING and SCHEDULED rows are still owned by the sweeper and the scheduler
+                if (!REPLAYABLE_DELIVERY_STATUSES.contains(normalized)) {
+                    throw new IllegalArgumentException("Delivery status " + deliveryStatus
+                            + " cannot be replayed; use DELIVERED, ABANDONED or SUPPRESSED");
+                }
+                if (!job.getDeliveryStatuses().contains(normalized)) {
+                    job.getDeliveryStatuses().add(normalized);
+                }
+            }
+        } else {
+            job.setDeliveryStatuses(new ArrayList<>(DEFAULT_DELIVERY_STATUSES));
+        }
+
+        int parallelism = request.getParallelism() != null ? request.getParallelism() : properties.getParallelism();
+        if (parallelism < 1 || parallelism > properties.getMaxParallelism()) {
+            throw new IllegalArgumentException("Replay parallelism must be between 1 and " + properties.getMaxParallelism());
+        }
+        job.setParallelism(parallelism);
+
+        double maxPerSecond = request.getMaxPerSecond() != null ? request.getMaxPerSecond() : properties.getMaxPerSecond();
+        if (maxPerSecond < 0) {
+            throw new IllegalArgumentException("Replay maxPerSecond must not be negative");
+        }
+        job.setMaxPerSecond(maxPerSecond);
+        job.setDryRun(request.isDryRun());
+        return job;
+    }
+
+    private void run(ReplayJob job) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(job.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "replay-" + job.getId() + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A dry run has no side effects to protect, so it is not throttled
+        Progress progress = new Progress(job, new TokenBucket(job.isDryRun() ? 0 : job.getMaxPerSecond()));
+        long intervalMs = properties.getHeartbeatIntervalMs();
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleWithFixedDelay(
+                () -> heartbeat(progress), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        try {
+            for (String shard : shardsFor(job)) {
+                String key = shard != null ? shard : DEFAULT_SHARD;
+                if (job.getCompletedShards().contains(key)) {
+                    continue;
+                }
+                if (!replayShard(progress, shard, key, workers)) {
+                    log.info("Replay job {} stopped on shard {} at ID {}", job.getId(), key, job.getCheckpoints().get(key));
+                    return;
+                }
+            }
+            replayJobStore.finish(job, ReplayJob.COMPLETED, null);
+            log.info("Replay job {} completed: {} processed, {} sent, {} sent but not marked, {} suppressed, {} failed",
+                    job.getId(), job.getProcessed(), job.getSent(), job.getUnmarked(), job.getSuppressed(), job.getFailed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Replay job {} interrupted; resume it to continue from the last checkpoint", job.getId());
+        } catch (Exception e) {
+            log.error("Replay job {} failed", job.getId(), e);
+            String error = String.valueOf(e.getMessage());
+            replayJobStore.finish(job, ReplayJob.FAILED, error.length() > 1000 ? error.substring(0, 1000) : error);
+        } finally {
+            heartbeat.cancel(false);
+            workers.shutdownNow();
+        }
+    }
+
+    private void heartbeat(Progress progress) {
+        try {
+            boolean owned;
+            synchronized (progress) {
+                progress.publish();
+                owned = replayJobStore.heartbeat(progress.job);
+            }
+            if (!owned) {
+                progress.stopped = true;
+            }
+        } catch (RuntimeException e) {
+            // Keep running; the next heartbeat or checkpoint will tell whether the job is still ours
+            log.warn("Replay job {} failed to write its heartbeat: {}", progress.job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * With a merchant set only the shards owning those merchants are read. Without sharding there is a single
+     * database; a null shard leaves routing untouched.
+     */
+    private List<String> shardsFor(ReplayJob job) {
+        ShardRing ring = shardRing.getIfAvailable();
+        if (ring == null) {
+            return Collections.singletonList(null);
+        }
+        if (job.getMerchantEmails().isEmpty()) {
+            return ring.getShardIds();
+        }
+        Set<String> owners = new LinkedHashSet<>();
+        for (String merchant : job.getMerchantEmails()) {
+            owners.add(ring.shardFor(merchant));
+        }
+        return ring.getShardIds().stream().filter(owners::contains).toList();
+    }
+
+    /**
+     * @return false if the job was cancelled or taken over by another node
+     */
+    private boolean replayShard(Progress progress, String shard, String key, ExecutorService workers)
+            throws InterruptedException, ExecutionException {
+        ReplayJob job = progress.job;
+        long lastId = job.getCheckpoints().getOrDefault(key, 0L);
+        boolean done;
+        do {
+            long afterId = lastId;
+            List<com.homeware.notificationservice.entity.PaymentDetails> chunk =
+                    ShardContext.callOn(shard, () -> fetchChunk(job, afterId));
+
+            List<Future<?>> pending = new ArrayList<>(chunk.size());
+            for (com.homeware.notificationservice.entity.PaymentDetails row : chunk) {
+                pending.add(workers.submit(() -> replayRow(progress, shard, row)));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            if (progress.stopped) {
+                // Some rows of this page were skipped, so it must not be checkpointed
+                return false;
+            }
+
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+            done = chunk.size() < properties.getChunkSize();
+            job.getCheckpoints().put(key, lastId);
+            boolean owned;
+            synchronized (progress) {
+                progress.publish();
+                owned = replayJobStore.checkpoint(job, key, lastId, done);
+            }
+            if (!owned) {
+                return false;
+            }
+        } while (!done);
+        job.getCompletedShards().add(key);
+        return true;
+    }
+
+    private List<com.homeware.notificationservice.entity.PaymentDetails> fetchChunk(ReplayJob job, long afterId) {
+        LocalDateTime from = job.getFrom() != null ? job.getFrom() : BEGINNING;
+        LocalDateTime to = job.getTo() != null ? job.getTo() : END;
+        PageRequest page = PageRequest.of(0, properties.getChunkSize());
+        if (job.getMerchantEmails().isEmpty()) {
+            return paymentDetailsRepository.findReplayChunk(afterId, from, to,
+                    job.getPaymentStatuses(), job.getDeliveryStatuses(), page);
+        }
+        return paymentDetailsRepository.findReplayChunkForMerchants(afterId, from, to,
+                job.getPaymentStatuses(), job.getDeliveryStatuses(), job.getMerchantEmails(), page);
+    }
+
+    private void replayRow(Progress progress, String shard, com.homeware.notificationservice.entity.PaymentDetails row) {
+        if (progress.stopped) {
+            return;
+        }
+        progress.processed.incrementAndGet();
+        PaymentDetails paymentDetails = RedeliverySweeper.convertToDto(row);
+        String transactionId = row.getTransactionId();
+        long backoffMs = properties.getDeferralBackoffMs();
+        while (true) {
+            try {
+                if (progress.job.isDryRun()) {
+                    emailNotificationService.renderPaymentNotification(paymentDetails);
+                } else {
+                    progress.bucket.acquire();
+                    emailNotificationService.sendPaymentNotification(paymentDetails);
+                    if (!mark(progress, shard, transactionId, paymentDetailsRepository::markDelivered)) {
+                        progress.unmarked.incrementAndGet();
+                        unmarkedCounter.increment();
+                        return;
+                    }
+                }
+                progress.sent.incrementAndGet();
+                sentCounter.increment();
+                return;
+            } catch (RecipientSuppressedException e) {
+                if (!progress.job.isDryRun()) {
+                    mark(progress, shard, transactionId, paymentDetailsRepository::markSuppressed);
+                }
+                progress.suppressed.incrementAndGet();
+                suppressedCounter.increment();
+                return;
+            } catch (NotificationDeferredException e) {
+                // Live traffic has filled the lane; wait for it to drain instead of adding to the sweeper's backlog
+                progress.deferred.incrementAndGet();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, properties.getMaxDeferralBackoffMs());
+                if (progress.stopped) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                progress.failed.incrementAndGet();
+                failedCounter.increment();
+                log.warn("Replay job {} failed to send notification for transaction {}: {}",
+                        progress.job.getId(), transactionId, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records the outcome on the row after the mail has been handled. A failure here is not a failed send:
+     * the recipient already has the mail, so it is logged and must not be retried.
+     *
+     * @return false if the row could not be updated
+     */
+    private boolean mark(Progress progress, String shard, String transactionId,
+                         BiFunction<String, LocalDateTime, Integer> update) {
+        try {
+            ShardContext.runOn(shard, () -> update.apply(transactionId, LocalDateTime.now(clock)));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Replay job {} handled transaction {} but could not update its delivery status: {}",
+                    progress.job.getId(), transactionId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Live counters for one run of a job, shared by its workers. They start from the stored counters so
+     * totals accumulate across resumes.
+     */
+    private static final class Progress {
+
+        private final ReplayJob job;
+        private final TokenBucket bucket;
+        private final AtomicLong processed;
+        private final AtomicLong sent;
+        private final AtomicLong unmarked;
+        private final AtomicLong suppressed;
+        private final AtomicLong failed;
+        private final AtomicLong deferred;
+        /** Set by the heartbeat once the job is cancelled or owned by another node. */
+        private volatile boolean stopped;
+        private long publishedSent;
+        private long publishedAt = System.nanoTime();
+
+        private Progress(ReplayJob job, TokenBucket bucket) {
+            this.job = job;
+            this.bucket = bucket;
+            this.processed = new AtomicLong(job.getProcessed());
+            this.sent = new AtomicLong(job.getSent());
+            this.unmarked = new AtomicLong(job.getUnmarked());
+            this.suppressed = new AtomicLong(job.getSuppressed());
+            this.failed = new AtomicLong(job.getFailed());
+            this.deferred = new AtomicLong(job.getDeferred());
+            this.publishedSent = job.getSent();
+        }
+
+        /**
+         * Copies the counters to the job, with the send rate since the previous checkpoint or heartbeat.
+         * Callers hold this object's lock while publishing and writing, so an older snapshot never
+         * overwrites a newer one.
+         */
+        private void publish() {
+            long now = System.nanoTime();
+            long sentNow = sent.get();
+            double ratePerSecond = (sentNow - publishedSent) / (Math.max(now - publishedAt, 1) / 1e9);
+            publishedSent = sentNow;
+            publishedAt = now;
+            job.setProcessed(processed.get());
+            job.setSent(sentNow);
+            job.setUnmarked(unmarked.get());
+            job.setSuppressed(suppressed.get());
+            job.setFailed(failed.get());
+            job.setDeferred(deferred.get());
+            job.setRatePerSecond(ratePerSecond);
+        }
+    }
+}
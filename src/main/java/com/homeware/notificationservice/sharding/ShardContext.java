@@ -0,0 +1,47 @@
+package com.homeware.notificationservice.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard that database work on the current thread should be routed to.
+ * <p>
+ * The shard must be chosen before a transaction starts, because the connection is bound when the
+ * transaction begins. Code that sweeps every shard (e.g. the redelivery sweeper) pins each shard
+ * explicitly; repository calls made without a pinned shard are routed by {@link ShardRoutingInterceptor}.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void runOn(String shardId, Runnable work) {
+        callOn(shardId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static <T> T callOn(String shardId, Supplier<T> work) {
+        String previous = CURRENT.get();
+        set(shardId);
+        try {
+            return work.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    static void set(String shardId) {
+        if (shardId == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shardId);
+        }
+    }
+}
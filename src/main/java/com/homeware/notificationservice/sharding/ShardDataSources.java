@@ -0,0 +1,46 @@
+package com.homeware.notificationservice.sharding;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * The directory database (holds the transaction-ID to shard index) and the shard databases.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final DataSource directory;
+    private final Map<String, DataSource> shards;
+
+    public ShardDataSources(DataSource directory, Map<String, DataSource> shards) {
+        this.directory = directory;
+        this.shards = Map.copyOf(shards);
+    }
+
+    public DataSource getDirectory() {
+        return directory;
+    }
+
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    public DataSource getShard(String shardId) {
+        DataSource dataSource = shards.get(shardId);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shardId);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : shards.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (directory instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
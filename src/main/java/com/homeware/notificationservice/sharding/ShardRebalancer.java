@@ -0,0 +1,104 @@
+package com.homeware.notificationservice.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Online resharding tool. After a shard is added to (or removed from) the ring, moves every row
+ * whose merchant now hashes to a different shard, while the service keeps running.
+ * <p>
+ * Each row is moved under a row lock on the source shard: copy to the owner, repoint the directory
+ * entry, delete the source row. The redelivery sweeper skips locked rows, and a move interrupted half
+ * way is completed by the next run.
+ * <p>
+ * The copy and the directory update commit before the source delete, so a concurrent delivery update
+ * (e.g. {@code markDelivered}) either lands before the row is locked and is copied, or matches nothing
+ * on the source once the delete commits. {@link ShardRoutingInterceptor} retries such an update on the
+ * shard the directory now names, so the moved row never keeps a stale PENDING status. A copy left on
+ * the target by an interrupted move is overwritten with the source row's current delivery state.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    // The source row is locked, so its delivery state is final for this move; refresh any stale earlier copy
+    private static final String DELIVERY_STATE_UPDATE = "delivery_status = EXCLUDED.delivery_status, "
+            + "delivery_attempts = EXCLUDED.delivery_attempts, next_attempt_at = EXCLUDED.next_attempt_at, "
+            + "last_attempt_at = EXCLUDED.last_attempt_at, updated_at = EXCLUDED.updated_at";
+
+    private final ShardDataSources shardDataSources;
+    private final ShardRing shardRing;
+    private final TransactionShardDirectory directory;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardDataSources shardDataSources, ShardRing shardRing,
+                           TransactionShardDirectory directory, int batchSize) {
+        this.shardDataSources = shardDataSources;
+        this.shardRing = shardRing;
+        this.directory = directory;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return number of rows that were (or, for a dry run, would be) moved, keyed by "source->target"
+     */
+    public Map<String, Long> rebalance(boolean dryRun) {
+        Map<String, Long> moved = new LinkedHashMap<>();
+        for (String source : shardDataSources.getShards().keySet()) {
+            JdbcTemplate sourceJdbc = new JdbcTemplate(shardDataSources.getShard(source));
+            TransactionTemplate sourceTx = new TransactionTemplate(
+                    new DataSourceTransactionManager(shardDataSources.getShard(source)));
+
+            long lastId = 0;
+            List<Map<String, Object>> page;
+            do {
+                page = sourceJdbc.queryForList(
+                        "SELECT id, transaction_id, merchant_email FROM payment_details WHERE id > ? ORDER BY id LIMIT ?",
+                        lastId, batchSize);
+                for (Map<String, Object> row : page) {
+                    long id = ((Number) row.get("id")).longValue();
+                    lastId = id;
+                    String target = shardRing.shardFor((String) row.get("merchant_email"));
+                    if (target.equals(source)) {
+                        continue;
+                    }
+                    boolean rowMoved = dryRun || Boolean.TRUE.equals(
+                            sourceTx.execute(status -> moveRow(sourceJdbc, id, target)));
+                    if (rowMoved) {
+                        moved.merge(source + "->" + target, 1L, Long::sum);
+                    }
+                }
+            } while (page.size() == batchSize);
+        }
+        log.info("Shard rebalance {} complete: {}", dryRun ? "dry run" : "run", moved);
+        return moved;
+    }
+
+    private boolean moveRow(JdbcTemplate sourceJdbc, long id, String target) {
+        List<Map<String, Object>> locked = sourceJdbc.queryForList(
+                "SELECT * FROM payment_details WHERE id = ? FOR UPDATE SKIP LOCKED", id);
+        if (locked.isEmpty()) {
+            // Being updated right now (or already moved); the next run picks it up
+            return false;
+        }
+        Map<String, Object> row = locked.get(0);
+
+        List<String> columns = new ArrayList<>(row.keySet());
+        columns.remove("id");
+        String placeholders = String.join(", ", columns.stream().map(c -> "?").toList());
+        new JdbcTemplate(shardDataSources.getShard(target)).update(
+                "INSERT INTO payment_details (" + String.join(", ", columns) + ") VALUES (" + placeholders + ") "
+                        + "ON CONFLICT (transaction_id) DO UPDATE SET " + DELIVERY_STATE_UPDATE,
+                columns.stream().map(row::get).toArray());
+
+        directory.reassign((String) row.get("transaction_id"), target);
+        sourceJdbc.update("DELETE FROM payment_details WHERE id = ?", id);
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package com.homeware.notificationservice.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Consistent-hash ring mapping merchant emails to shard ids. Each shard owns {@code virtualNodes}
+ * points on the ring, so adding a shard only moves roughly 1/N of the merchants.
+ */
+public class ShardRing {
+
+    private final List<String> shardIds;
+    private final long[] points;
+    private final String[] owners;
+
+    public ShardRing(List<String> shardIds, int virtualNodes) {
+        if (shardIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.shardIds = List.copyOf(shardIds);
+
+        int size = shardIds.size() * virtualNodes;
+        long[] unsortedPoints = new long[size];
+        Integer[] order = new Integer[size];
+        String[] unsortedOwners = new String[size];
+        int i = 0;
+        for (String shardId : shardIds) {
+            for (int v = 0; v < virtualNodes; v++) {
+                unsortedPoints[i] = hash(shardId + "#" + v);
+                unsortedOwners[i] = shardId;
+                order[i] = i;
+                i++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(unsortedPoints[a], unsortedPoints[b]));
+
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int j = 0; j < size; j++) {
+            points[j] = unsortedPoints[order[j]];
+            owners[j] = unsortedOwners[order[j]];
+        }
+    }
+
+    public String shardFor(String merchantEmail) {
+        long h = hash(merchantEmail.trim().toLowerCase(Locale.ROOT));
+        int index = Arrays.binarySearch(points, h);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> getShardIds() {
+        return shardIds;
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (digest[i] & 0xFF);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.homeware.notificationservice.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes connections to the shard pinned in {@link ShardContext}, or to the directory database
+ * when no shard is pinned (schema management, health checks).
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(ShardDataSources dataSources) {
+        Map<Object, Object> targets = new HashMap<>(dataSources.getShards());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(dataSources.getDirectory());
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,168 @@
+package com.homeware.notificationservice.sharding;
+
+import com.homeware.notificationservice.entity.PaymentDetails;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Routes {@code PaymentDetailsRepository} calls to the shard that owns the data. Every repository method has an
+ * explicit {@link Route}; {@link #verifyRoutes} rejects a repository with an unrouted method when the proxy is
+ * built, so a new query cannot reach production without a routing decision.
+ * <ul>
+ *     <li>{@code save} goes to the merchant's shard and registers the transaction ID in the directory</li>
+ *     <li>transaction-ID lookups and updates go through the directory index</li>
+ *     <li>merchant lookups go to the merchant's shard</li>
+ *     <li>unordered, unbounded list queries are scattered to every shard and gathered</li>
+ *     <li>keyset and {@code LIMIT} queries only run on a shard pinned by the caller, since a gathered result
+ *         would hold up to one page per shard, out of order</li>
+ * </ul>
+ * Calls made while a shard is already pinned in {@link ShardContext} run on that shard.
+ * <p>
+ * A transaction-ID update that matches no row is retried once on the shard the directory now names:
+ * the row may have been moved by {@link ShardRebalancer} while the update was routed by the old entry
+ * or blocked on the row lock of the move. Without the retry the update would be lost on the old shard
+ * and the moved row would keep its stale delivery status.
+ */
+@RequiredArgsConstructor
+public class ShardRoutingInterceptor implements MethodInterceptor {
+
+    private enum Route { SAVE, TRANSACTION_ID_LOOKUP, TRANSACTION_ID_UPDATE, MERCHANT, ALL_SHARDS, PINNED_SHARD }
+
+    private static final Map<String, Route> ROUTES = Map.ofEntries(
+            Map.entry("save", Route.SAVE),
+            Map.entry("findByTransactionId", Route.TRANSACTION_ID_LOOKUP),
+            Map.entry("findByTransactionIdAndPaymentStatus", Route.TRANSACTION_ID_LOOKUP),
+            Map.entry("markDelivered", Route.TRANSACTION_ID_UPDATE),
+            Map.entry("markSuppressed", Route.TRANSACTION_ID_UPDATE),
+            Map.entry("renewLease", Route.TRANSACTION_ID_UPDATE),
+            Map.entry("deferDelivery", Route.TRANSACTION_ID_UPDATE),
+            Map.entry("recordFailedAttempt", Route.TRANSACTION_ID_UPDATE),
+            Map.entry("markAbandoned", Route.TRANSACTION_ID_UPDATE),
+            Map.entry("markDue", Route.TRANSACTION_ID_UPDATE),
+            Map.entry("findMerchantHistory", Route.MERCHANT),
+            Map.entry("findMerchantHistoryByStatus", Route.MERCHANT),
+            Map.entry("findByPaymentStatus", Route.ALL_SHARDS),
+            Map.entry("claimPendingDeliveries", Route.PINNED_SHARD),
+            Map.entry("findScheduledDeliveries", Route.PINNED_SHARD),
+            Map.entry("findReplayChunk", Route.PINNED_SHARD),
+            Map.entry("findReplayChunkForMerchants", Route.PINNED_SHARD));
+
+    private final ShardRing shardRing;
+    private final TransactionShardDirectory directory;
+
+    /**
+     * @throws IllegalStateException naming every method of {@code repositoryType} that has no route
+     */
+    public static void verifyRoutes(Class<?> repositoryType) {
+        List<String> unrouted = Arrays.stream(repositoryType.getMethods())
+                .filter(method -> !Modifier.isStatic(method.getModifiers()))
+                .map(Method::getName)
+                .filter(name -> !ROUTES.containsKey(name))
+                .distinct()
+                .sorted()
+                .toList();
+        if (!unrouted.isEmpty()) {
+            throw new IllegalStateException(repositoryType.getSimpleName() + " methods " + unrouted
+                    + " have no shard route; add them to ShardRoutingInterceptor.ROUTES");
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+
+        String method = invocation.getMethod().getName();
+        Route route = ROUTES.get(method);
+        if (route == null) {
+            // Only reachable through a proxy built without verifyRoutes
+            throw new IllegalStateException("No shard route for PaymentDetailsRepository." + method);
+        }
+        Object[] args = invocation.getArguments();
+        String pinned = ShardContext.current();
+        if (pinned != null) {
+            Object result = proceedOn(pinned, invocation);
+            return route == Route.TRANSACTION_ID_UPDATE ? retryIfMoved(invocation, pinned, (String) args[0], result) : result;
+        }
+
+        switch (route) {
+            case SAVE:
+                return save(invocation, (PaymentDetails) args[0]);
+            case TRANSACTION_ID_LOOKUP:
+            case TRANSACTION_ID_UPDATE: {
+                String shard = directory.lookup((String) args[0]);
+                if (shard == null) {
+                    return route == Route.TRANSACTION_ID_UPDATE ? 0 : Optional.empty();
+                }
+                Object result = proceedOn(shard, invocation);
+                return route == Route.TRANSACTION_ID_UPDATE ? retryIfMoved(invocation, shard, (String) args[0], result) : result;
+            }
+            case MERCHANT:
+                return proceedOn(shardRing.shardFor((String) args[0]), invocation);
+            case ALL_SHARDS: {
+                List<Object> gathered = new ArrayList<>();
+                for (String shard : shardRing.getShardIds()) {
+                    gathered.addAll((Collection<?>) proceedOn(shard, invocation));
+                }
+                return gathered;
+            }
+            case PINNED_SHARD:
+                throw new IllegalStateException("PaymentDetailsRepository." + method
+                        + " pages by keyset or LIMIT and must run with a shard pinned in ShardContext");
+            default:
+                throw new IllegalStateException("Unhandled shard route " + route);
+        }
+    }
+
+    private Object retryIfMoved(MethodInvocation invocation, String triedShard, String transactionId, Object result)
+            throws Throwable {
+        // Inside a transaction the connection is already bound to the tried shard, so a retry could not switch
+        if (!Integer.valueOf(0).equals(result) || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return result;
+        }
+        String owner = directory.lookup(transactionId);
+        if (owner == null || owner.equals(triedShard)) {
+            return result;
+        }
+        return proceedOn(owner, invocation);
+    }
+
+    private Object save(MethodInvocation invocation, PaymentDetails entity) throws Throwable {
+        String shard = shardRing.shardFor(entity.getMerchantEmail());
+        if (entity.getId() != null) {
+            return proceedOn(shard, invocation);
+        }
+
+        directory.register(entity.getTransactionId(), shard);
+        try {
+            return proceedOn(shard, invocation);
+        } catch (Throwable t) {
+            directory.remove(entity.getTransactionId());
+            throw t;
+        }
+    }
+
+    private Object proceedOn(String shard, MethodInvocation invocation) throws Throwable {
+        String previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            // A fresh clone per shard lets scatter-gather proceed through the same invocation more than once
+            return ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.homeware.notificationservice.sharding;
+
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shards {@code payment_details} by merchant email across the databases listed under
+ * {@code notification.sharding.shards}. The regular {@code spring.datasource} becomes the directory
+ * database holding the transaction-ID to shard index.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "notification.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties dataSourceProperties, ShardingProperties sharding) {
+        DataSource directory = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : sharding.getShards()) {
+            shards.put(shard.getId(), DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.getDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build());
+        }
+        return new ShardDataSources(directory, shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        return new ShardRoutingDataSource(shardDataSources);
+    }
+
+    @Bean
+    public ShardRing shardRing(ShardingProperties sharding) {
+        List<String> shardIds = sharding.getShards().stream().map(ShardingProperties.Shard::getId).toList();
+        return new ShardRing(shardIds, sharding.getVirtualNodes());
+    }
+
+    @Bean
+    public TransactionShardDirectory transactionShardDirectory(ShardDataSources shardDataSources) {
+        return new TransactionShardDirectory(shardDataSources.getDirectory());
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardDataSources shardDataSources, ShardRing shardRing,
+                                           TransactionShardDirectory transactionShardDirectory,
+                                           ShardingProperties sharding) {
+        return new ShardRebalancer(shardDataSources, shardRing, transactionShardDirectory, sharding.getRebalanceBatchSize());
+    }
+
+    // Checked when the proxy is built, so a repository method without a shard route fails startup, not a request
+    @Bean
+    public static BeanPostProcessor shardRoutingRepositoryPostProcessor(ObjectProvider<ShardRing> shardRing,
+                                                                         ObjectProvider<TransactionShardDirectory> directory) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof PaymentDetailsRepository)) {
+                    return bean;
+                }
+                ShardRoutingInterceptor.verifyRoutes(PaymentDetailsRepository.class);
+                ProxyFactory proxyFactory = new ProxyFactory();
+                proxyFactory.setTarget(bean);
+                proxyFactory.addInterface(PaymentDetailsRepository.class);
+                proxyFactory.addAdvice(new ShardRoutingInterceptor(shardRing.getObject(), directory.getObject()));
+                return proxyFactory.getProxy();
+            }
+        };
+    }
+}
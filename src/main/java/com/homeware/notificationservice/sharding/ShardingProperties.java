@@ -0,0 +1,28 @@
+package com.homeware.notificationservice.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "notification.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private int virtualNodes = 128;
+
+    private int rebalanceBatchSize = 500;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String id;
+        private String url;
+        private String username;
+        private String password;
+    }
+}
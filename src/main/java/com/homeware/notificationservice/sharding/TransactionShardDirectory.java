@@ -0,0 +1,42 @@
+package com.homeware.notificationservice.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Global transaction-ID to shard index, kept in the directory database. Its primary key also
+ * enforces transaction-ID uniqueness across all shards.
+ */
+public class TransactionShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionShardDirectory(DataSource directory) {
+        this.jdbcTemplate = new JdbcTemplate(directory);
+    }
+
+    public String lookup(String transactionId) {
+        List<String> shards = jdbcTemplate.queryForList(
+                "SELECT shard_id FROM transaction_shard_index WHERE transaction_id = ?", String.class, transactionId);
+        return shards.isEmpty() ? null : shards.get(0);
+    }
+
+    /**
+     * @throws org.springframework.dao.DuplicateKeyException if the transaction ID is already registered
+     */
+    public void register(String transactionId, String shardId) {
+        jdbcTemplate.update("INSERT INTO transaction_shard_index (transaction_id, shard_id) VALUES (?, ?)",
+                transactionId, shardId);
+    }
+
+    public void reassign(String transactionId, String shardId) {
+        jdbcTemplate.update("UPDATE transaction_shard_index SET shard_id = ? WHERE transaction_id = ?",
+                shardId, transactionId);
+    }
+
+    public void remove(String transactionId) {
+        jdbcTemplate.update("DELETE FROM transaction_shard_index WHERE transaction_id = ?", transactionId);
+    }
+}
@@ -0,0 +1,43 @@
+package com.homeware.notificationservice.suppression;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+@Slf4j
+@Configuration
+public class SuppressionConfig {
+
+    private final SuppressionList suppressionList;
+
+    public SuppressionConfig(@Value("${notification.suppression.file:data/suppression-list.idx}") String file,
+                             @Value("${notification.suppression.initial-capacity:1048576}") int initialCapacity) {
+        this.suppressionList = SuppressionList.open(Path.of(file), initialCapacity);
+        log.info("Suppression list mapped from {} with {} entries", file, suppressionList.size());
+    }
+
+    @Bean(destroyMethod = "close")
+    public SuppressionList suppressionList() {
+        return suppressionList;
+    }
+
+    // Catches up with changes made while this node was down before it serves any sends
+    @Bean
+    public SuppressionStore suppressionStore(DataSource dataSource,
+                                             @Value("${notification.suppression.refresh-overlap-ms:60000}") long refreshOverlapMs) {
+        SuppressionStore store = new SuppressionStore(dataSource, suppressionList, refreshOverlapMs);
+        store.refresh();
+        return store;
+    }
+
+    // The mapped file is the restart snapshot; flush it periodically rather than on every update
+    @Scheduled(fixedDelayString = "${notification.suppression.flush-interval-ms:30000}")
+    public void flushSuppressionList() {
+        suppressionList.flush();
+    }
+}
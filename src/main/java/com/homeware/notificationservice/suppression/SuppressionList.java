@@ -0,0 +1,306 @@
+package com.homeware.notificationservice.suppression;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Set of suppressed email addresses held in a memory-mapped file, so millions of entries live
+ * outside the Java heap and the file itself is the snapshot used on restart.
+ * <p>
+ * This is a node-local cache of {@code suppressed_address}; {@link SuppressionStore} keeps it in
+ * sync and records in the header how far the snapshot has been synced.
+ * <p>
+ * Each address is stored as a 64-bit fingerprint in an open-addressing table with linear probing.
+ * Lookups are lock-free (optimistic reads), writes are serialized. The table doubles into a new
+ * file when it gets too full. Two distinct addresses sharing a fingerprint is possible but
+ * vanishingly unlikely (about 1 in 10^6 at ten million entries).
+ */
+public class SuppressionList implements AutoCloseable {
+
+    private static final long MAGIC = 0x5355505052455353L; // "SUPPRESS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int SIZE_OFFSET = 16;
+    private static final int TOMBSTONES_OFFSET = 20;
+    private static final int SYNCED_THROUGH_OFFSET = 24;
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = 1L;
+    private static final double MAX_LOAD = 0.7;
+    private static final int MAX_CAPACITY = 1 << 27; // keeps the mapping under 2 GB
+
+    private final Path file;
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table;
+
+    private SuppressionList(Path file, Table table) {
+        this.file = file;
+        this.table = table;
+    }
+
+    /**
+     * Maps an existing snapshot, or creates an empty table with room for {@code initialCapacity} slots.
+     */
+    public static SuppressionList open(Path file, int initialCapacity) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            if (Files.exists(file) && Files.size(file) >= HEADER_BYTES) {
+                return new SuppressionList(file, Table.map(file));
+            }
+            return new SuppressionList(file, Table.create(file, tableSizeFor(initialCapacity)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open suppression list " + file, e);
+        }
+    }
+
+    public boolean contains(String email) {
+        long fingerprint = fingerprint(email);
+        long stamp = lock.tryOptimisticRead();
+        boolean found = table.contains(fingerprint);
+        if (lock.validate(stamp)) {
+            return found;
+        }
+        stamp = lock.readLock();
+        try {
+            return table.contains(fingerprint);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return {@code true} if the address was not already suppressed
+     */
+    public boolean add(String email) {
+        return addFingerprint(fingerprint(email));
+    }
+
+    boolean addFingerprint(long fingerprint) {
+        long stamp = lock.writeLock();
+        try {
+            if (table.contains(fingerprint)) {
+                return false;
+            }
+            if (table.size + table.tombstones + 1 > table.capacity * MAX_LOAD) {
+                resize(table.size + 1 > table.capacity * MAX_LOAD / 2 ? table.capacity * 2 : table.capacity);
+            }
+            table.insert(fingerprint);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return {@code true} if the address was suppressed
+     */
+    public boolean remove(String email) {
+        return removeFingerprint(fingerprint(email));
+    }
+
+    boolean removeFingerprint(long fingerprint) {
+        long stamp = lock.writeLock();
+        try {
+            return table.delete(fingerprint);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    public int capacity() {
+        return table.capacity;
+    }
+
+    /**
+     * @return the {@code updated_at} (epoch millis) of the newest shared change applied to this snapshot,
+     *         {@code 0} if it has never been synced
+     */
+    public long syncedThrough() {
+        return table.buffer.getLong(SYNCED_THROUGH_OFFSET);
+    }
+
+    void setSyncedThrough(long epochMillis) {
+        long stamp = lock.writeLock();
+        try {
+            table.buffer.putLong(SYNCED_THROUGH_OFFSET, epochMillis);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Writes dirty pages of the snapshot to disk.
+     */
+    public void flush() {
+        long stamp = lock.readLock();
+        try {
+            table.buffer.force();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    // Rebuilds into a temporary file and swaps it in, which also clears tombstones
+    private void resize(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Suppression list is full (" + table.size + " entries)");
+        }
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".resize");
+            Table resized = Table.create(tmp, newCapacity);
+            Table current = table;
+            for (int slot = 0; slot < current.capacity; slot++) {
+                long value = current.slot(slot);
+                if (value != EMPTY && value != TOMBSTONE) {
+                    resized.insert(value);
+                }
+            }
+            resized.buffer.putLong(SYNCED_THROUGH_OFFSET, current.buffer.getLong(SYNCED_THROUGH_OFFSET));
+            resized.buffer.force();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            table = resized;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to resize suppression list " + file, e);
+        }
+    }
+
+    static long fingerprint(String email) {
+        byte[] bytes = email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L; // FNV-1a, finished with the MurmurHash3 mixer
+        for (byte b : bytes) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        // 0 and 1 mark empty and deleted slots
+        return (h == EMPTY || h == TOMBSTONE) ? h + 2 : h;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        return Math.min(size, MAX_CAPACITY);
+    }
+
+    private static final class Table {
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final int mask;
+        private int size;
+        private int tombstones;
+
+        private Table(MappedByteBuffer buffer, int capacity, int size, int tombstones) {
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.size = size;
+            this.tombstones = tombstones;
+        }
+
+        static Table create(Path path, int capacity) throws IOException {
+            Files.deleteIfExists(path);
+            MappedByteBuffer buffer = mapFile(path, HEADER_BYTES + (long) capacity * Long.BYTES);
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(8, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            return new Table(buffer, capacity, 0, 0);
+        }
+
+        static Table map(Path path) throws IOException {
+            MappedByteBuffer buffer = mapFile(path, Files.size(path));
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+                throw new IOException("Not a suppression list snapshot: " + path);
+            }
+            return new Table(buffer, buffer.getInt(CAPACITY_OFFSET), buffer.getInt(SIZE_OFFSET),
+                    buffer.getInt(TOMBSTONES_OFFSET));
+        }
+
+        private static MappedByteBuffer mapFile(Path path, long length) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+                raf.setLength(length);
+                return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            }
+        }
+
+        long slot(int index) {
+            return buffer.getLong(HEADER_BYTES + index * Long.BYTES);
+        }
+
+        private void setSlot(int index, long value) {
+            buffer.putLong(HEADER_BYTES + index * Long.BYTES, value);
+        }
+
+        boolean contains(long fingerprint) {
+            return indexOf(fingerprint) >= 0;
+        }
+
+        private int indexOf(long fingerprint) {
+            int index = (int) fingerprint & mask;
+            for (int probes = 0; probes < capacity; probes++) {
+                long value = slot(index);
+                if (value == EMPTY) {
+                    return -1;
+                }
+                if (value == fingerprint) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        void insert(long fingerprint) {
+            int index = (int) fingerprint & mask;
+            while (true) {
+                long value = slot(index);
+                if (value == EMPTY || value == TOMBSTONE) {
+                    if (value == TOMBSTONE) {
+                        tombstones--;
+                        buffer.putInt(TOMBSTONES_OFFSET, tombstones);
+                    }
+                    setSlot(index, fingerprint);
+                    size++;
+                    buffer.putInt(SIZE_OFFSET, size);
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        boolean delete(long fingerprint) {
+            int index = indexOf(fingerprint);
+            if (index < 0) {
+                return false;
+            }
+            setSlot(index, TOMBSTONE);
+            size--;
+            tombstones++;
+            buffer.putInt(SIZE_OFFSET, size);
+            buffer.putInt(TOMBSTONES_OFFSET, tombstones);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.homeware.notificationservice.suppression;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * The shared suppression list in {@code suppressed_address} (the directory database when sharding is
+ * enabled), with this node's {@link SuppressionList} as a cache of it.
+ * <p>
+ * Admin changes are written to the table and applied to the local cache straight away. Every node folds
+ * in the changes made elsewhere every {@code refresh-interval-ms}, so an add or remove reaches the other
+ * nodes within one refresh interval; until then they may still send to, or keep skipping, that address.
+ * <p>
+ * Rows are keyed by address fingerprint and never deleted (a removal clears {@code suppressed}), so a
+ * refresh only reads rows changed since the last one. {@code updated_at} is the writing transaction's
+ * start time, so a transaction that commits late can carry an older timestamp than rows already applied;
+ * each refresh therefore starts {@code refresh-overlap-ms} before the newest change already applied.
+ */
+@Slf4j
+public class SuppressionStore {
+
+    private static final int PAGE_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SuppressionList suppressionList;
+    private final long refreshOverlapMillis;
+
+    public SuppressionStore(DataSource dataSource, SuppressionList suppressionList, long refreshOverlapMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.suppressionList = suppressionList;
+        this.refreshOverlapMillis = refreshOverlapMillis;
+    }
+
+    /**
+     * @return how many of the addresses were not already suppressed
+     */
+    public int suppress(List<String> emails) {
+        List<Long> fingerprints = emails.stream().map(SuppressionList::fingerprint).toList();
+        int[][] counts = jdbcTemplate.batchUpdate("INSERT INTO suppressed_address (fingerprint, suppressed, updated_at) "
+                        + "VALUES (?, TRUE, now()) ON CONFLICT (fingerprint) DO UPDATE SET suppressed = TRUE, updated_at = now() "
+                        + "WHERE NOT suppressed_address.suppressed",
+                fingerprints, PAGE_SIZE, (ps, fingerprint) -> ps.setLong(1, fingerprint));
+        int added = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                added += count > 0 ? 1 : 0;
+            }
+        }
+        fingerprints.forEach(suppressionList::addFingerprint);
+        return added;
+    }
+
+    /**
+     * @return {@code true} if the address was suppressed
+     */
+    public boolean unsuppress(String email) {
+        long fingerprint = SuppressionList.fingerprint(email);
+        int updated = jdbcTemplate.update("UPDATE suppressed_address SET suppressed = FALSE, updated_at = now() "
+                + "WHERE fingerprint = ? AND suppressed", fingerprint);
+        suppressionList.removeFingerprint(fingerprint);
+        return updated > 0;
+    }
+
+    /**
+     * Applies changes made on any node since the last refresh; the first refresh of an empty snapshot loads
+     * the whole table.
+     */
+    @Scheduled(fixedDelayString = "${notification.suppression.refresh-interval-ms:5000}",
+            initialDelayString = "${notification.suppression.refresh-interval-ms:5000}")
+    public void refresh() {
+        long syncedThrough = suppressionList.syncedThrough();
+        Timestamp afterTime = new Timestamp(syncedThrough == 0 ? 0 : syncedThrough - refreshOverlapMillis);
+        long afterFingerprint = Long.MIN_VALUE;
+        long newest = syncedThrough;
+        int applied = 0;
+        try {
+            while (true) {
+                List<Change> page = jdbcTemplate.query("SELECT fingerprint, suppressed, updated_at FROM suppressed_address "
+                                + "WHERE (updated_at, fingerprint) > (?, ?) ORDER BY updated_at, fingerprint LIMIT ?",
+                        (rs, rowNum) -> new Change(rs.getLong("fingerprint"), rs.getBoolean("suppressed"),
+                                rs.getTimestamp("updated_at")),
+                        afterTime, afterFingerprint, PAGE_SIZE);
+                for (Change change : page) {
+                    if (change.suppressed()) {
+                        suppressionList.addFingerprint(change.fingerprint());
+                    } else {
+                        suppressionList.removeFingerprint(change.fingerprint());
+                    }
+                    newest = Math.max(newest, change.updatedAt().getTime());
+                }
+                applied += page.size();
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                Change last = page.get(page.size() - 1);
+                afterTime = last.updatedAt();
+                afterFingerprint = last.fingerprint();
+            }
+        } catch (DataAccessException e) {
+            // Keep serving from the cache; the next refresh starts again from the last recorded position
+            log.warn("Suppression list refresh failed after {} change(s): {}", applied, e.getMessage());
+            return;
+        }
+        suppressionList.setSyncedThrough(newest);
+        if (applied > 0) {
+            log.debug("Applied {} suppression change(s), {} address(es) suppressed", applied, suppressionList.size());
+        }
+    }
+
+    private record Change(long fingerprint, boolean suppressed, Timestamp updatedAt) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.homeware.notificationservice.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Records request-body JSON binding as a span. A body that fails to parse never reaches
+ * {@code afterBodyRead}, so {@link TracingFilter} closes such spans at the end of the request.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class JsonBindingSpanAdvice extends RequestBodyAdviceAdapter {
+
+    private static final String SPAN_ATTRIBUTE = JsonBindingSpanAdvice.class.getName() + ".span";
+
+    private final Tracer tracer;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(SPAN_ATTRIBUTE, tracer.spanBuilder("json.bind").startSpan(),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(SPAN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Span span) {
+            attributes.removeAttribute(SPAN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            span.end();
+        }
+        return body;
+    }
+
+    static void endPendingSpan(HttpServletRequest request) {
+        if (request.getAttribute(SPAN_ATTRIBUTE) instanceof Span span) {
+            request.removeAttribute(SPAN_ATTRIBUTE);
+            // A malformed body is a client error, not a service fault; flag it without forcing the trace to be kept
+            span.setAttribute("json.bind.failed", true);
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.homeware.notificationservice.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+import java.util.function.Supplier;
+
+/**
+ * Helpers for wrapping a pipeline stage in a child span of the current span.
+ */
+public final class Spans {
+
+    public static final AttributeKey<String> TRANSACTION_ID = AttributeKey.stringKey("payment.transaction_id");
+
+    private Spans() {
+    }
+
+    public static <T> T inSpan(Tracer tracer, String name, String transactionId, Supplier<T> work) {
+        Span span = tracer.spanBuilder(name).startSpan();
+        if (transactionId != null) {
+            span.setAttribute(TRANSACTION_ID, transactionId);
+        }
+        try (Scope ignored = span.makeCurrent()) {
+            return work.get();
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    public static void runInSpan(Tracer tracer, String name, String transactionId, Runnable work) {
+        inSpan(tracer, name, transactionId, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
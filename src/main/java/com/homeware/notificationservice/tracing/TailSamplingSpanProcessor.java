@@ -0,0 +1,142 @@
+package com.homeware.notificationservice.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail-based sampler. Spans are buffered per trace until the local root span ends; the whole
+ * trace is then forwarded to the delegate (exporter) if the root was slow, any span errored,
+ * or it falls into a small random baseline. Everything else is dropped.
+ * <p>
+ * Spans that end after their trace was decided follow that decision. Traces whose root never
+ * ends are evicted after {@code STALE_TRACE_NANOS} so the buffer cannot grow without bound.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final long STALE_TRACE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int MAX_REMEMBERED_DECISIONS = 10_000;
+
+    private final SpanProcessor delegate;
+    private final long latencyThresholdNanos;
+    private final double baselineRatio;
+    private final int maxPendingTraces;
+    private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> decisions = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_REMEMBERED_DECISIONS;
+                }
+            });
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, long latencyThresholdMs,
+                                     double baselineRatio, int maxPendingTraces) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.baselineRatio = baselineRatio;
+        this.maxPendingTraces = maxPendingTraces;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        Boolean decision = decisions.get(traceId);
+        if (decision != null) {
+            if (decision) {
+                delegate.onEnd(span);
+            }
+            return;
+        }
+
+        SpanContext parent = span.getParentSpanContext();
+        boolean localRoot = !parent.isValid() || parent.isRemote();
+        if (!localRoot) {
+            buffer(traceId, span);
+            return;
+        }
+
+        PendingTrace trace = pending.remove(traceId);
+        List<ReadableSpan> spans = trace != null ? trace.drain() : new ArrayList<>();
+        spans.add(span);
+        boolean keep = shouldKeep(span, spans);
+        decisions.put(traceId, keep);
+        if (keep) {
+            spans.forEach(delegate::onEnd);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.clear();
+        return delegate.shutdown();
+    }
+
+    private boolean shouldKeep(ReadableSpan root, List<ReadableSpan> spans) {
+        if (root.getLatencyNanos() >= latencyThresholdNanos) {
+            return true;
+        }
+        for (ReadableSpan span : spans) {
+            if (span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR) {
+                return true;
+            }
+        }
+        return ThreadLocalRandom.current().nextDouble() < baselineRatio;
+    }
+
+    private void buffer(String traceId, ReadableSpan span) {
+        if (pending.size() >= maxPendingTraces && !pending.containsKey(traceId)) {
+            long now = System.nanoTime();
+            pending.values().removeIf(trace -> now - trace.createdAt > STALE_TRACE_NANOS);
+            if (pending.size() >= maxPendingTraces) {
+                return;
+            }
+        }
+        pending.computeIfAbsent(traceId, id -> new PendingTrace()).add(span);
+    }
+
+    private static final class PendingTrace {
+        private final long createdAt = System.nanoTime();
+        private final List<ReadableSpan> spans = new ArrayList<>();
+
+        synchronized void add(ReadableSpan span) {
+            spans.add(span);
+        }
+
+        synchronized List<ReadableSpan> drain() {
+            return new ArrayList<>(spans);
+        }
+    }
+}
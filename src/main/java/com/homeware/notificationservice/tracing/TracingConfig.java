@@ -0,0 +1,71 @@
+package com.homeware.notificationservice.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * OpenTelemetry tracing. Every request is recorded (head sampling is always-on) and
+ * {@link TailSamplingSpanProcessor} decides per trace what is exported, keeping slow and errored traces.
+ * <p>
+ * {@code notification.tracing.exporter} selects the destination: {@code otlp} (a local collector),
+ * {@code file} (JSON lines) or {@code none}.
+ */
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    public static final String INSTRUMENTATION_NAME = "com.homeware.notificationservice";
+
+    @Bean
+    public OpenTelemetrySdk openTelemetry(
+            @Value("${spring.application.name:notification-service}") String serviceName,
+            @Value("${notification.tracing.exporter:none}") String exporter,
+            @Value("${notification.tracing.otlp-endpoint:http://localhost:4318/v1/traces}") String otlpEndpoint,
+            @Value("${notification.tracing.file:traces/spans.jsonl}") String file,
+            @Value("${notification.tracing.latency-threshold-ms:500}") long latencyThresholdMs,
+            @Value("${notification.tracing.baseline-ratio:0.01}") double baselineRatio,
+            @Value("${notification.tracing.max-pending-traces:10000}") int maxPendingTraces) {
+        SpanExporter spanExporter = switch (exporter) {
+            case "otlp" -> OtlpHttpSpanExporter.builder().setEndpoint(otlpEndpoint).build();
+            case "file" -> new JsonFileSpanExporter(Path.of(file));
+            case "none" -> SpanExporter.composite();
+            default -> throw new IllegalArgumentException("Unknown notification.tracing.exporter: " + exporter);
+        };
+        log.info("Tracing spans exported to: {}", exporter);
+
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(
+                        Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName))))
+                .setSampler(Sampler.alwaysOn())
+                .addSpanProcessor(new TailSamplingSpanProcessor(
+                        BatchSpanProcessor.builder(spanExporter).build(),
+                        latencyThresholdMs, baselineRatio, maxPendingTraces))
+                .build();
+
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetrySdk openTelemetry) {
+        return openTelemetry.getTracer(INSTRUMENTATION_NAME);
+    }
+}
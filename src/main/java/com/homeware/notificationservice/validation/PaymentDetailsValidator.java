@@ -0,0 +1,129 @@
+package com.homeware.notificationservice.validation;
+
+import com.homeware.notificationservice.dto.ErrorResponse;
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.PaymentValidationException;
+import org.springframework.stereotype.Component;
+
+import java.net.IDN;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Validates {@link PaymentDetails} in a single pass with plain field reads, replacing {@code @Valid}
+ * on the ingest path. It mirrors the constraint annotations on the DTO field by field (same semantics,
+ * same messages) and then applies the cross-field rules that used to live in the controller and in
+ * {@code EmailNotificationService}. Keep it in step with the annotations; {@code PaymentDetailsValidatorTest}
+ * checks parity against Bean Validation.
+ */
+@Component
+public class PaymentDetailsValidator {
+
+    // The rules Hibernate Validator applies for @Email: a dot-separated local part of at most 64 characters,
+    // then a domain name or an address literal; PaymentDetailsValidatorTest checks parity
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_DOMAIN_PART_LENGTH = 255;
+    private static final String LOCAL_PART_ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~\u0080-\uFFFF-]";
+    private static final String LOCAL_PART_QUOTED = "\"(?:[a-z0-9!#$%&'*.(),<>\\[\\]:;  @+/=?^_`{|}~\u0080-\uFFFF-]|\\\\\\\\|\\\\\")+\"";
+    private static final Pattern LOCAL_PART = Pattern.compile(
+            "(?:" + LOCAL_PART_ATOM + "+|" + LOCAL_PART_QUOTED + ")(?:\\.(?:" + LOCAL_PART_ATOM + "+|" + LOCAL_PART_QUOTED + "))*",
+            Pattern.CASE_INSENSITIVE);
+    private static final String DOMAIN_CHAR = "[a-z\u0080-\uFFFF0-9!#$%&'*+/=?^_`{|}~]";
+    private static final String DOMAIN_LABEL = "(?:" + DOMAIN_CHAR + "-*)*" + DOMAIN_CHAR + "+";
+    private static final String IPV4_OCTET = "(?:25[0-5]|(?:2[0-4]|1?[0-9])?[0-9])";
+    private static final String IPV4 = "(?:" + IPV4_OCTET + "\\.){3}" + IPV4_OCTET;
+    private static final String IPV6 = "(?:(?:[0-9a-f]{1,4}:){7}[0-9a-f]{1,4}|(?:[0-9a-f]{1,4}:){1,7}:"
+            + "|(?:[0-9a-f]{1,4}:){1,6}:[0-9a-f]{1,4}|(?:[0-9a-f]{1,4}:){1,5}(?::[0-9a-f]{1,4}){1,2}"
+            + "|(?:[0-9a-f]{1,4}:){1,4}(?::[0-9a-f]{1,4}){1,3}|(?:[0-9a-f]{1,4}:){1,3}(?::[0-9a-f]{1,4}){1,4}"
+            + "|(?:[0-9a-f]{1,4}:){1,2}(?::[0-9a-f]{1,4}){1,5}|[0-9a-f]{1,4}:(?::[0-9a-f]{1,4}){1,6}"
+            + "|:(?:(?::[0-9a-f]{1,4}){1,7}|:)|fe80:(?::[0-9a-f]{0,4}){0,4}%[0-9a-z]+"
+            + "|::(?:ffff(?::0{1,4})?:)?" + IPV4 + "|(?:[0-9a-f]{1,4}:){1,4}:" + IPV4 + ")";
+    private static final Pattern DOMAIN_PART = Pattern.compile(
+            DOMAIN_LABEL + "+(?:\\." + DOMAIN_LABEL + "+)*|\\[[0-9]{1,3}(?:\\.[0-9]{1,3}){3}\\]|\\[IPv6:" + IPV6 + "\\]",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * @throws PaymentValidationException if any field constraint fails (rendered as "Validation Failed")
+     * @throws IllegalArgumentException if the fields are valid but a cross-field rule fails
+     */
+    public void validate(PaymentDetails paymentDetails) {
+        List<ErrorResponse.FieldError> fieldErrors = fieldErrors(paymentDetails);
+        if (!fieldErrors.isEmpty()) {
+            throw new PaymentValidationException(fieldErrors);
+        }
+
+        String paymentStatus = paymentDetails.getPaymentStatus();
+        boolean failed = "FAILED".equalsIgnoreCase(paymentStatus);
+        if (!failed && !"SUCCESS".equalsIgnoreCase(paymentStatus)) {
+            throw new IllegalArgumentException("Invalid payment status: " + paymentStatus);
+        }
+        if (failed && isBlank(paymentDetails.getFailureReason())) {
+            throw new IllegalArgumentException("Failure reason is required when payment status is FAILED");
+        }
+    }
+
+    /**
+     * Field constraint violations in declaration order, or an empty list.
+     */
+    public List<ErrorResponse.FieldError> fieldErrors(PaymentDetails paymentDetails) {
+        List<ErrorResponse.FieldError> errors = null;
+        errors = notBlank(errors, "transactionId", paymentDetails.getTransactionId(), "Transaction ID is required");
+        errors = notBlank(errors, "merchantEmail", paymentDetails.getMerchantEmail(), "Merchant email is required");
+        if (!isEmail(paymentDetails.getMerchantEmail())) {
+            errors = add(errors, "merchantEmail", "Invalid email address");
+        }
+        errors = notBlank(errors, "merchantName", paymentDetails.getMerchantName(), "Merchant name is required");
+        if (paymentDetails.getAmount() == null) {
+            errors = add(errors, "amount", "Amount is required");
+        }
+        errors = notBlank(errors, "currency", paymentDetails.getCurrency(), "Currency is required");
+        errors = notBlank(errors, "paymentMethod", paymentDetails.getPaymentMethod(), "Payment method is required");
+        errors = notBlank(errors, "paymentStatus", paymentDetails.getPaymentStatus(), "Payment status is required");
+        return errors != null ? errors : List.of();
+    }
+
+    private static List<ErrorResponse.FieldError> notBlank(List<ErrorResponse.FieldError> errors,
+                                                           String field, String value, String message) {
+        return isBlank(value) ? add(errors, field, message) : errors;
+    }
+
+    // The valid path allocates nothing; the list is only created once there is something to report
+    private static List<ErrorResponse.FieldError> add(List<ErrorResponse.FieldError> errors,
+                                                      String field, String message) {
+        if (errors == null) {
+            errors = new ArrayList<>(4);
+        }
+        errors.add(new ErrorResponse.FieldError(field, message));
+        return errors;
+    }
+
+    // Same rule as @Email: null and empty pass (left to @NotBlank), otherwise split at the last '@'
+    static boolean isEmail(String value) {
+        if (value == null || value.isEmpty()) {
+            return true;
+        }
+        int at = value.lastIndexOf('@');
+        if (at < 0) {
+            return false;
+        }
+        String localPart = value.substring(0, at);
+        String domainPart = value.substring(at + 1);
+        if (localPart.length() > MAX_LOCAL_PART_LENGTH || !LOCAL_PART.matcher(localPart).matches()) {
+            return false;
+        }
+        if (domainPart.endsWith(".") || !DOMAIN_PART.matcher(domainPart).matches()) {
+            return false;
+        }
+        try {
+            return IDN.toASCII(domainPart).length() <= MAX_DOMAIN_PART_LENGTH;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Same rule as @NotBlank: null, or nothing left after trim()
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
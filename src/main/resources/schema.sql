@@ -17,14 +17,76 @@ CREATE TABLE IF NOT EXISTS payment_details (
     transaction_date TIMESTAMP,
     order_id VARCHAR(255),
     description VARCHAR(1000),
+    delivery_status VARCHAR(20) NOT NULL DEFAULT 'DELIVERED',
+    delivery_attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP,
+    last_attempt_at TIMESTAMP,
     created_at TIMESTAMP NOT NULL,
     updated_at TIMESTAMP,
-    CONSTRAINT chk_payment_status CHECK (payment_status IN ('SUCCESS', 'FAILED'))
+    CONSTRAINT chk_payment_status CHECK (payment_status IN ('SUCCESS', 'FAILED')),
+    CONSTRAINT chk_delivery_status CHECK (delivery_status IN ('PENDING', 'DELIVERED', 'ABANDONED', 'SUPPRESSED', 'SCHEDULED'))
 );
 
 -- Create indexes for better query performance
 CREATE INDEX IF NOT EXISTS idx_transaction_id ON payment_details(transaction_id);
-CREATE INDEX IF NOT EXISTS idx_merchant_email ON payment_details(merchant_email);
+-- Serves the merchant history keyset, newest first
+DROP INDEX IF EXISTS idx_merchant_email;
+CREATE INDEX IF NOT EXISTS idx_merchant_email_id ON payment_details(merchant_email, id);
 CREATE INDEX IF NOT EXISTS idx_payment_status ON payment_details(payment_status);
 CREATE INDEX IF NOT EXISTS idx_created_at ON payment_details(created_at);
 
+-- Partial index used by the redelivery sweeper to claim undelivered rows
+CREATE INDEX IF NOT EXISTS idx_pending_delivery ON payment_details(next_attempt_at) WHERE delivery_status = 'PENDING';
+
+-- Partial index used to load scheduled / quiet-hours deliveries into the timing wheel
+CREATE INDEX IF NOT EXISTS idx_scheduled_delivery ON payment_details(next_attempt_at, id) WHERE delivery_status = 'SCHEDULED';
+
+-- Transaction ID -> shard index (directory database only, used when notification.sharding.enabled=true)
+CREATE TABLE IF NOT EXISTS transaction_shard_index (
+    transaction_id VARCHAR(255) PRIMARY KEY,
+    shard_id VARCHAR(64) NOT NULL
+);
+
+-- Shared suppression list by address fingerprint; rows are never deleted so nodes can refresh incrementally
+-- (directory database when sharding is enabled)
+CREATE TABLE IF NOT EXISTS suppressed_address (
+    fingerprint BIGINT PRIMARY KEY,
+    suppressed BOOLEAN NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_suppressed_address_updated_at ON suppressed_address(updated_at, fingerprint);
+
+-- Bulk replay jobs and their per-shard keyset checkpoints (directory database when sharding is enabled)
+CREATE TABLE IF NOT EXISTS replay_job (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    owner VARCHAR(64) NOT NULL,
+    from_time TIMESTAMP,
+    to_time TIMESTAMP,
+    merchant_emails TEXT,
+    payment_statuses VARCHAR(50) NOT NULL,
+    delivery_statuses VARCHAR(100) NOT NULL,
+    dry_run BOOLEAN NOT NULL,
+    parallelism INTEGER NOT NULL,
+    max_per_second DOUBLE PRECISION NOT NULL,
+    processed BIGINT NOT NULL DEFAULT 0,
+    sent BIGINT NOT NULL DEFAULT 0,
+    unmarked BIGINT NOT NULL DEFAULT 0,
+    suppressed BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    deferred BIGINT NOT NULL DEFAULT 0,
+    rate_per_second DOUBLE PRECISION NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    error VARCHAR(1000),
+    CONSTRAINT chk_replay_status CHECK (status IN ('RUNNING', 'COMPLETED', 'CANCELLED', 'FAILED'))
+);
+
+CREATE TABLE IF NOT EXISTS replay_checkpoint (
+    job_id BIGINT NOT NULL REFERENCES replay_job(id) ON DELETE CASCADE,
+    shard_id VARCHAR(64) NOT NULL,
+    last_id BIGINT NOT NULL,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (job_id, shard_id)
+);
@@ -0,0 +1,95 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.admission.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testRejectsRequestsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.2, 1.5, 100);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5), false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.2, 1.5, 100);
+
+        for (int i = 0; i < 200; i++) {
+            saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit should grow, was " + limiter.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyClimbs() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 0.2, 1.5, 600);
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int healthyLimit = limiter.getLimit();
+
+        for (int i = 0; i < 2; i++) {
+            saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertTrue(limiter.getLimit() < healthyLimit,
+                "limit should shrink from " + healthyLimit + ", was " + limiter.getLimit());
+    }
+
+    @Test
+    void testServerErrorsBackOffLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0.2, 1.5, 100);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+
+        assertTrue(limiter.getLimit() < 20);
+        assertTrue(limiter.getLimit() >= 4);
+    }
+
+    @Test
+    void testUnsampledReleasesDoNotMoveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 0.2, 1.5, 600);
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int healthyLimit = limiter.getLimit();
+
+        // A storm of fast 4xx rejections frees slots without feeding the estimator
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.releaseWithoutSample();
+        }
+        saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getLimit() >= healthyLimit,
+                "limit should not collapse from " + healthyLimit + ", was " + limiter.getLimit());
+    }
+
+    // Fills the limit so samples are taken at full utilisation, then releases every slot
+    private void saturateAndRelease(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
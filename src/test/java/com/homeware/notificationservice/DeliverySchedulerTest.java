@@ -0,0 +1,188 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.scheduling.QuietHoursPolicy;
+import com.homeware.notificationservice.scheduling.ScheduleProperties;
+import com.homeware.notificationservice.service.DeliveryScheduler;
+import com.homeware.notificationservice.service.EmailNotificationService;
+import com.homeware.notificationservice.sharding.ShardRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DeliverySchedulerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-10T12:00:00Z"), ZoneId.of("Europe/Berlin"));
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 10, 13, 0);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private PaymentDetailsRepository paymentDetailsRepository;
+    private EmailNotificationService emailNotificationService;
+    private ScheduleProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<DeliveryScheduler> schedulers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        paymentDetailsRepository = mock(PaymentDetailsRepository.class);
+        emailNotificationService = mock(EmailNotificationService.class);
+        when(paymentDetailsRepository.findScheduledDeliveries(any(), anyLong(), any(), anyInt())).thenReturn(List.of());
+        when(paymentDetailsRepository.markDue(anyString(), any())).thenReturn(1);
+        when(paymentDetailsRepository.findByTransactionId(anyString()))
+                .thenAnswer(invocation -> Optional.of(createRow(invocation.getArgument(0))));
+
+        properties = new ScheduleProperties();
+        properties.setTickMs(10);
+        properties.setRefillBatchSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        schedulers.forEach(DeliveryScheduler::stop);
+    }
+
+    @Test
+    void testRefillPagesThroughTheHorizonByKeyset() {
+        LocalDateTime horizon = NOW.plusMinutes(properties.getHorizonMinutes());
+        when(paymentDetailsRepository.findScheduledDeliveries(BEGINNING, 0L, horizon, 2)).thenReturn(List.of(
+                delivery(1L, "TXN1", NOW.plusMinutes(10)), delivery(2L, "TXN2", NOW.plusMinutes(10))));
+        when(paymentDetailsRepository.findScheduledDeliveries(NOW.plusMinutes(10), 2L, horizon, 2)).thenReturn(List.of(
+                delivery(3L, "TXN3", NOW.plusMinutes(20))));
+        DeliveryScheduler scheduler = createScheduler();
+
+        scheduler.refill();
+
+        assertEquals(3, pending());
+        verify(paymentDetailsRepository).findScheduledDeliveries(NOW.plusMinutes(10), 2L, horizon, 2);
+
+        // The next refill only reads the slice after the horizon already loaded
+        scheduler.refill();
+
+        verify(paymentDetailsRepository).findScheduledDeliveries(horizon, Long.MAX_VALUE, horizon, 2);
+        verify(paymentDetailsRepository, times(1)).findScheduledDeliveries(eq(BEGINNING), eq(0L), eq(horizon), anyInt());
+        assertEquals(3, pending());
+    }
+
+    @Test
+    void testRecoveryPassFiresRowsLeftOverdueByAnotherNode() {
+        LocalDateTime overdue = NOW.minusSeconds(properties.getRecoveryGraceSeconds());
+        when(paymentDetailsRepository.findScheduledDeliveries(BEGINNING, 0L, overdue, 2)).thenReturn(List.of(
+                delivery(5L, "TXN5", NOW.minusMinutes(5))));
+        DeliveryScheduler scheduler = createScheduler();
+
+        scheduler.refill();
+
+        verify(paymentDetailsRepository, timeout(5000)).markDelivered("TXN5", NOW);
+        verify(paymentDetailsRepository).markDue("TXN5", NOW);
+        verify(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+    }
+
+    @Test
+    void testRowHeldByTwoNodesIsSentOnce() throws InterruptedException {
+        Set<String> due = ConcurrentHashMap.newKeySet();
+        when(paymentDetailsRepository.markDue(anyString(), any()))
+                .thenAnswer(invocation -> due.add(invocation.getArgument(0)) ? 1 : 0);
+        DeliveryScheduler first = createScheduler();
+        DeliveryScheduler second = createScheduler();
+
+        first.schedule("TXN1", NOW);
+        second.schedule("TXN1", NOW);
+
+        verify(paymentDetailsRepository, timeout(5000).times(2)).markDue("TXN1", NOW);
+        verify(paymentDetailsRepository, timeout(5000)).markDelivered("TXN1", NOW);
+        Thread.sleep(100);
+        verify(emailNotificationService, times(1)).sendPaymentNotification(any(PaymentDetails.class));
+        verify(paymentDetailsRepository, times(1)).findByTransactionId("TXN1");
+    }
+
+    @Test
+    void testRowIsHeldInTheWheelOnce() {
+        LocalDateTime horizon = NOW.plusMinutes(properties.getHorizonMinutes());
+        when(paymentDetailsRepository.findScheduledDeliveries(BEGINNING, 0L, horizon, 2)).thenReturn(List.of(
+                delivery(1L, "TXN1", NOW.plusMinutes(10))));
+        DeliveryScheduler scheduler = createScheduler();
+
+        scheduler.schedule("TXN1", NOW.plusMinutes(10));
+        scheduler.schedule("TXN1", NOW.plusMinutes(10));
+        scheduler.refill();
+
+        assertEquals(1, pending());
+    }
+
+    @Test
+    void testRowBeyondTheHorizonIsLeftToRefill() {
+        DeliveryScheduler scheduler = createScheduler();
+
+        scheduler.schedule("TXN1", NOW.plusMinutes(properties.getHorizonMinutes() + 1));
+
+        assertEquals(0, pending());
+    }
+
+    private DeliveryScheduler createScheduler() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ShardRing> shardRing = mock(ObjectProvider.class);
+        DeliveryScheduler scheduler = new DeliveryScheduler(paymentDetailsRepository, emailNotificationService, shardRing,
+                new QuietHoursPolicy(properties.getQuietHours(), CLOCK.getZone()), properties, CLOCK, meterRegistry);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private double pending() {
+        return meterRegistry.get("notification.schedule.pending").gauge().value();
+    }
+
+    private static PaymentDetailsRepository.ScheduledDelivery delivery(long id, String transactionId, LocalDateTime sendAt) {
+        return new PaymentDetailsRepository.ScheduledDelivery() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTransactionId() {
+                return transactionId;
+            }
+
+            @Override
+            public LocalDateTime getNextAttemptAt() {
+                return sendAt;
+            }
+        };
+    }
+
+    private static com.homeware.notificationservice.entity.PaymentDetails createRow(String transactionId) {
+        com.homeware.notificationservice.entity.PaymentDetails row = new com.homeware.notificationservice.entity.PaymentDetails();
+        row.setTransactionId(transactionId);
+        row.setMerchantEmail("merchant@example.com");
+        row.setMerchantName("Test Merchant");
+        row.setAmount(new BigDecimal("100.50"));
+        row.setCurrency("USD");
+        row.setPaymentMethod("Credit Card");
+        row.setPaymentStatus("SUCCESS");
+        row.setDeliveryStatus(com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_PENDING);
+        return row;
+    }
+}
@@ -0,0 +1,33 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.admission.AdaptiveConcurrencyLimiter;
+import com.homeware.notificationservice.grpc.GrpcServer;
+import com.homeware.notificationservice.grpc.PaymentNotificationGrpcService;
+import com.homeware.notificationservice.service.PaymentNotificationProcessor;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class GrpcServerTest {
+
+    @Test
+    void testPortZeroBindsFreePort() {
+        PaymentNotificationGrpcService service = new PaymentNotificationGrpcService(
+                mock(PaymentNotificationProcessor.class), new AdaptiveConcurrencyLimiter(20, 4, 200, 0.2, 1.5, 600),
+                OpenTelemetry.noop().getTracer("test"), 100, ZoneOffset.UTC);
+        GrpcServer server = new GrpcServer(0, 2, 4 * 1024 * 1024, 1, service);
+
+        server.start();
+        try {
+            assertTrue(server.isRunning());
+            assertTrue(server.getPort() > 0);
+        } finally {
+            server.stop();
+        }
+        assertFalse(server.isRunning());
+    }
+}
@@ -0,0 +1,99 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.scheduling.HierarchicalTimer;
+import com.homeware.notificationservice.scheduling.TimerTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimerTest {
+
+    // Small wheel so anything over 80ms has to go through an overflow wheel
+    private final HierarchicalTimer timer = new HierarchicalTimer("test", 10, 8, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void testTasksFireInDelayOrder() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+
+        timer.add(task(300, "third", fired, latch));
+        timer.add(task(50, "first", fired, latch));
+        timer.add(task(150, "second", fired, latch));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second", "third"), fired);
+    }
+
+    @Test
+    void testLongDelayIsCascadedThroughOverflowWheels() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        timer.add(task(700, "late", fired, latch));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 690, "fired after " + elapsedMs + "ms");
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    void testCancelledTaskDoesNotFire() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        TimerTask cancelled = task(100, "cancelled", fired, new CountDownLatch(1));
+        timer.add(cancelled);
+        timer.add(task(300, "kept", fired, latch));
+        cancelled.cancel();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("kept"), fired);
+    }
+
+    @Test
+    void testSizeCountsPendingTasks() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> fired = new CopyOnWriteArrayList<>();
+
+        timer.add(task(60_000, "a", fired, new CountDownLatch(1)));
+        timer.add(task(60_000, "b", fired, new CountDownLatch(1)));
+        timer.add(task(50, "c", fired, latch));
+        assertEquals(3, timer.size());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(2, timer.size());
+    }
+
+    @Test
+    void testTaskWithElapsedDelayRunsImmediately() {
+        List<String> fired = new CopyOnWriteArrayList<>();
+
+        timer.add(task(0, "now", fired, new CountDownLatch(1)));
+
+        assertEquals(List.of("now"), fired);
+        assertEquals(0, timer.size());
+    }
+
+    private static TimerTask task(long delayMs, String name, List<String> fired, CountDownLatch latch) {
+        return new TimerTask(delayMs) {
+            @Override
+            public void run() {
+                fired.add(name);
+                latch.countDown();
+            }
+        };
+    }
+}
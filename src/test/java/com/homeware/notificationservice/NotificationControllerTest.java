@@ -3,7 +3,9 @@ package com.homeware.notificationservice;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.homeware.notificationservice.dto.PaymentDetails;
 import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.service.DeliveryScheduler;
 import com.homeware.notificationservice.service.EmailNotificationService;
+import com.homeware.notificationservice.service.PaymentNotificationProcessor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -11,33 +13,56 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.MediaType;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mail.MailException;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 import com.homeware.notificationservice.exception.GlobalExceptionHandler;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.exception.RecipientSuppressedException;
+import com.homeware.notificationservice.replica.ReadYourWritesInterceptor;
+import com.homeware.notificationservice.scheduling.ScheduleConfig;
+import com.homeware.notificationservice.tracing.TracingConfig;
+import com.homeware.notificationservice.validation.PaymentDetailsValidator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(com.homeware.notificationservice.controller.NotificationController.class)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, TracingConfig.class, ScheduleConfig.class, PaymentDetailsValidator.class,
+        PaymentNotificationProcessor.class})
 class NotificationControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private RequestMappingHandlerMapping handlerMapping;
+
     @MockBean
     private EmailNotificationService emailNotificationService;
 
     @MockBean
     private PaymentDetailsRepository paymentDetailsRepository;
 
+    @MockBean
+    private DeliveryScheduler deliveryScheduler;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,6 +84,7 @@ class NotificationControllerTest {
         verify(paymentDetailsRepository, times(1)).findByTransactionId("TXN123456789");
         verify(paymentDetailsRepository, times(1)).save(any(com.homeware.notificationservice.entity.PaymentDetails.class));
         verify(emailNotificationService, times(1)).sendPaymentNotification(any(PaymentDetails.class));
+        verify(paymentDetailsRepository, times(1)).markDelivered(any(), any());
     }
 
     @Test
@@ -241,6 +267,43 @@ class NotificationControllerTest {
         verify(emailNotificationService, never()).sendPaymentNotification(any());
     }
 
+    @Test
+    void testDuplicateTransactionErrorBody() throws Exception {
+        PaymentDetails paymentDetails = createValidPaymentDetails("TXN123456789", "SUCCESS");
+
+        when(paymentDetailsRepository.findByTransactionId("TXN123456789"))
+                .thenReturn(Optional.of(new com.homeware.notificationservice.entity.PaymentDetails()));
+
+        mockMvc.perform(post("/api/notifications/payment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentDetails)))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.timestamp").isString())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.error").value("Conflict"))
+                .andExpect(jsonPath("$.path").value("/api/notifications/payment"))
+                .andExpect(jsonPath("$.fieldErrors").doesNotExist());
+    }
+
+    @Test
+    void testValidationErrorBody() throws Exception {
+        PaymentDetails paymentDetails = createValidPaymentDetails("TXN123", "SUCCESS");
+        paymentDetails.setMerchantEmail("invalid-email");
+
+        mockMvc.perform(post("/api/notifications/payment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentDetails)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("Validation Failed"))
+                .andExpect(jsonPath("$.message").value("Invalid input data"))
+                .andExpect(jsonPath("$.path").value("/api/notifications/payment"))
+                .andExpect(jsonPath("$.fieldErrors[0].field").value("merchantEmail"))
+                .andExpect(jsonPath("$.fieldErrors[0].message").value("Invalid email address"));
+    }
+
     @Test
     void testDatabaseError() throws Exception {
         PaymentDetails paymentDetails = createValidPaymentDetails("TXN123", "SUCCESS");
@@ -271,6 +334,72 @@ class NotificationControllerTest {
                         .content(objectMapper.writeValueAsString(paymentDetails)))
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.error").value("Email Service Error"));
+        
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+    }
+
+    @Test
+    void testNotificationDeferredWhenDispatcherSaturated() throws Exception {
+        PaymentDetails paymentDetails = createValidPaymentDetails("TXN123", "SUCCESS");
+        
+        when(paymentDetailsRepository.findByTransactionId(anyString())).thenReturn(Optional.empty());
+        when(paymentDetailsRepository.save(any(com.homeware.notificationservice.entity.PaymentDetails.class)))
+                .thenReturn(new com.homeware.notificationservice.entity.PaymentDetails());
+        doThrow(new NotificationDeferredException("Notification dispatch lane SUCCESS is saturated"))
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        mockMvc.perform(post("/api/notifications/payment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentDetails)))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string("Payment notification queued for delivery"));
+        
+        verify(paymentDetailsRepository, times(1)).save(any(com.homeware.notificationservice.entity.PaymentDetails.class));
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+    }
+
+    @Test
+    void testSuppressedRecipientIsRecordedNotSent() throws Exception {
+        PaymentDetails paymentDetails = createValidPaymentDetails("TXN123", "SUCCESS");
+        
+        when(paymentDetailsRepository.findByTransactionId(anyString())).thenReturn(Optional.empty());
+        when(paymentDetailsRepository.save(any(com.homeware.notificationservice.entity.PaymentDetails.class)))
+                .thenReturn(new com.homeware.notificationservice.entity.PaymentDetails());
+        doThrow(new RecipientSuppressedException("Recipient is on the suppression list"))
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        mockMvc.perform(post("/api/notifications/payment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentDetails)))
+                .andExpect(status().isOk());
+        
+        verify(paymentDetailsRepository, times(1)).markSuppressed(eq("TXN123"), any());
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+    }
+
+    @Test
+    void testScheduledNotificationIsSavedNotSent() throws Exception {
+        PaymentDetails paymentDetails = createValidPaymentDetails("TXN123", "SUCCESS");
+        LocalDateTime sendAt = LocalDateTime.now().plusHours(2);
+        paymentDetails.setSendAt(sendAt);
+
+        when(paymentDetailsRepository.findByTransactionId(anyString())).thenReturn(Optional.empty());
+        when(paymentDetailsRepository.save(any(com.homeware.notificationservice.entity.PaymentDetails.class)))
+                .thenReturn(new com.homeware.notificationservice.entity.PaymentDetails());
+        when(deliveryScheduler.resolveSendAt(any(PaymentDetails.class))).thenReturn(sendAt);
+
+        mockMvc.perform(post("/api/notifications/payment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentDetails)))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string("Payment notification scheduled for delivery"));
+
+        verify(paymentDetailsRepository, times(1)).save(argThat(entity ->
+                com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_SCHEDULED.equals(entity.getDeliveryStatus())
+                        && sendAt.equals(entity.getNextAttemptAt())));
+        verify(deliveryScheduler, times(1)).schedule("TXN123", sendAt);
+        verify(emailNotificationService, never()).sendPaymentNotification(any(PaymentDetails.class));
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
     }
 
     @Test
@@ -352,6 +481,89 @@ class NotificationControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testPaymentHistoryForMerchant() throws Exception {
+        com.homeware.notificationservice.entity.PaymentDetails payment = createRow(7L, "TXN123456789");
+        payment.setDeliveryStatus("DELIVERED");
+        payment.setDeliveryAttempts(1);
+        
+        when(paymentDetailsRepository.findMerchantHistory("merchant@example.com", Long.MAX_VALUE, PageRequest.of(0, 51)))
+                .thenReturn(List.of(payment));
+
+        mockMvc.perform(get("/api/notifications/payments")
+                        .param("merchantEmail", "merchant@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments[0].transactionId").value("TXN123456789"))
+                .andExpect(jsonPath("$.payments[0].id").doesNotExist())
+                .andExpect(jsonPath("$.payments[0].deliveryStatus").doesNotExist())
+                .andExpect(jsonPath("$.payments[0].deliveryAttempts").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        
+        verify(paymentDetailsRepository, never()).findMerchantHistoryByStatus(anyString(), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void testPaymentHistoryFilteredByStatus() throws Exception {
+        when(paymentDetailsRepository.findMerchantHistoryByStatus("merchant@example.com", "FAILED", Long.MAX_VALUE,
+                PageRequest.of(0, 51))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/notifications/payments")
+                        .param("merchantEmail", "merchant@example.com")
+                        .param("paymentStatus", "failed"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"payments\":[],\"nextCursor\":null}"));
+        
+        verify(paymentDetailsRepository, times(1)).findMerchantHistoryByStatus(
+                "merchant@example.com", "FAILED", Long.MAX_VALUE, PageRequest.of(0, 51));
+    }
+
+    @Test
+    void testPaymentHistoryPagesByCursor() throws Exception {
+        when(paymentDetailsRepository.findMerchantHistory("merchant@example.com", 40L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(createRow(30L, "TXN30"), createRow(20L, "TXN20"), createRow(10L, "TXN10")));
+
+        mockMvc.perform(get("/api/notifications/payments")
+                        .param("merchantEmail", "merchant@example.com")
+                        .param("cursor", "40")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments.length()").value(2))
+                .andExpect(jsonPath("$.payments[1].transactionId").value("TXN20"))
+                .andExpect(jsonPath("$.nextCursor").value(20));
+    }
+
+    @Test
+    void testPaymentHistoryPageSizeIsBounded() throws Exception {
+        mockMvc.perform(get("/api/notifications/payments")
+                        .param("merchantEmail", "merchant@example.com")
+                        .param("size", "201"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/notifications/payments")
+                        .param("merchantEmail", "merchant@example.com")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(paymentDetailsRepository, never()).findMerchantHistory(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void testReadYourWritesInterceptorIsNotRegisteredWithoutReplicas() throws Exception {
+        HandlerExecutionChain chain = handlerMapping.getHandler(
+                new MockHttpServletRequest("GET", "/api/notifications/payments"));
+
+        assertNotNull(chain);
+        assertTrue(chain.getInterceptorList().stream().noneMatch(ReadYourWritesInterceptor.class::isInstance));
+    }
+
+    private static com.homeware.notificationservice.entity.PaymentDetails createRow(long id, String transactionId) {
+        com.homeware.notificationservice.entity.PaymentDetails row = new com.homeware.notificationservice.entity.PaymentDetails();
+        row.setId(id);
+        row.setTransactionId(transactionId);
+        row.setMerchantEmail("merchant@example.com");
+        row.setPaymentStatus("SUCCESS");
+        return row;
+    }
+
     // Helper method to create valid payment details
     private PaymentDetails createValidPaymentDetails(String transactionId, String paymentStatus) {
         PaymentDetails paymentDetails = new PaymentDetails();
@@ -0,0 +1,158 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.service.NotificationDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void testFailedLaneIsServedAheadOfSuccessLane() throws Exception {
+        dispatcher = startDispatcher(10, 10, 10);
+        CountDownLatch release = blockWorker();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> s1 = dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> order.add("S1"));
+        CompletableFuture<Void> f1 = dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> order.add("F1"));
+        CompletableFuture<Void> s2 = dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> order.add("S2"));
+        CompletableFuture<Void> f2 = dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> order.add("F2"));
+        release.countDown();
+
+        CompletableFuture.allOf(s1, f1, s2, f2).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("F1", "F2", "S1", "S2"), order);
+    }
+
+    @Test
+    void testSuccessIsDeferredWhenItsLaneIsFull() throws Exception {
+        dispatcher = startDispatcher(10, 1, 10);
+        CountDownLatch release = blockWorker();
+
+        dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> { });
+        assertThrows(NotificationDeferredException.class,
+                () -> dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> { }));
+        assertEquals(1.0, meterRegistry.get("notification.dispatch.deferred").tag("lane", "success").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void testSuccessIsShedBeforeFailedUnderFailedBacklog() throws Exception {
+        dispatcher = startDispatcher(10, 10, 2);
+        CountDownLatch release = blockWorker();
+
+        dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> { });
+        dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> { });
+        assertThrows(NotificationDeferredException.class,
+                () -> dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> { }));
+        assertDoesNotThrow(() -> dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> { }));
+        assertEquals(3, dispatcher.queueDepth(NotificationDispatcher.Lane.FAILED));
+        release.countDown();
+    }
+
+    @Test
+    void testDeliveryFailureCompletesFutureExceptionally() {
+        dispatcher = startDispatcher(10, 10, 10);
+
+        CompletableFuture<Void> future = dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> {
+            throw new IllegalStateException("SMTP down");
+        });
+
+        Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void testStopFailsQueuedWorkWithDeferral() throws Exception {
+        dispatcher = startDispatcher(10, 10, 10);
+        CountDownLatch release = blockWorker();
+        CompletableFuture<Void> queued = dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> { });
+
+        dispatcher.stop();
+
+        Exception e = assertThrows(Exception.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(NotificationDeferredException.class, e.getCause());
+        assertThrows(NotificationDeferredException.class,
+                () -> dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> { }));
+        release.countDown();
+    }
+
+    @Test
+    void testCancelledQueuedDeliveryIsNeverRun() throws Exception {
+        dispatcher = startDispatcher(10, 10, 10);
+        CountDownLatch release = blockWorker();
+        List<String> sent = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> withdrawn = dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> sent.add("S1"));
+        CompletableFuture<Void> kept = dispatcher.dispatch(NotificationDispatcher.Lane.SUCCESS, () -> sent.add("S2"));
+
+        assertTrue(withdrawn.cancel(false));
+        assertEquals(1, dispatcher.queueDepth(NotificationDispatcher.Lane.SUCCESS));
+        release.countDown();
+
+        kept.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("S2"), sent);
+        assertTrue(withdrawn.isCancelled());
+    }
+
+    @Test
+    void testStartedDeliveryCannotBeCancelled() throws Exception {
+        dispatcher = startDispatcher(10, 10, 10);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> sending = dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        assertFalse(sending.cancel(false));
+        release.countDown();
+
+        assertDoesNotThrow(() -> sending.get(5, TimeUnit.SECONDS));
+    }
+
+    private NotificationDispatcher startDispatcher(int failedCapacity, int successCapacity, int successShedThreshold) {
+        NotificationDispatcher started = new NotificationDispatcher(
+                meterRegistry, 1, failedCapacity, successCapacity, 4, successShedThreshold, 100, 100);
+        started.start();
+        return started;
+    }
+
+    // Occupies the single worker so that subsequent submissions stay queued until released
+    private CountDownLatch blockWorker() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(NotificationDispatcher.Lane.FAILED, () -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+}
@@ -0,0 +1,212 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.dto.ErrorResponse;
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.PaymentValidationException;
+import com.homeware.notificationservice.validation.PaymentDetailsValidator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentDetailsValidatorTest {
+
+    // Shared by both validators; edge cases of the @Email grammar and of @NotBlank
+    private static final List<String> EMAIL_CORPUS = List.of(
+            "merchant@example.com", "MERCHANT@EXAMPLE.COM", "first.last@example.com", "first.last+tag@sub.example.co.uk",
+            "x@y.z", "a@b", "user_name@example-shop.com", "o'brien@example.ie", "user%example.org@example.net",
+            "#!$%&'*+-/=?^_`{}|~@example.org", "\"quoted name\"@example.com", "\"a\\\"b\"@example.com",
+            "\"unterminated@example.com", "händler@bücher.de", "用户@例子.广告", "merchant@xn--bcher-kva.de",
+            "merchant@[192.168.0.1]", "merchant@[256.1.1.1]", "merchant@[IPv6:2001:db8::1]", "merchant@[IPv6:zz::1]",
+            "merchant@[192.168.0]", "merchant@localhost", "merchant@-example.com", "merchant@example-.com",
+            "merchant@exa--mple.com", "merchant@example..com", "merchant@.example.com", "merchant@example.com.",
+            "merchant@example.", "merchant@", "@example.com", "@", "merchant", "invalid-email", "merchant@@example.com",
+            "mer@chant@example.com", "first..last@example.com", ".first@example.com", "first.@example.com",
+            "first last@example.com", "merchant@exa mple.com", " merchant@example.com", "merchant@example.com ",
+            "merchant@example.com\n", "merchant@ex_ample.com", "merchant@123.123.123.123", "merchant@example.c",
+            "a".repeat(64) + "@example.com", "a".repeat(65) + "@example.com",
+            "merchant@" + "a".repeat(63) + ".com", "merchant@" + "a".repeat(64) + ".com",
+            "merchant@" + ("a".repeat(60) + ".").repeat(4) + "com", "merchant@" + ("a".repeat(62) + ".").repeat(4) + "com",
+            "", " ", "\t", "\u00a0", "\u2003merchant@example.com");
+
+    private static final List<String> TEXT_CORPUS = Arrays.asList(null, "", " ", "\t\n", "\u00a0", "x", " padded ");
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator beanValidator;
+
+    private final PaymentDetailsValidator validator = new PaymentDetailsValidator();
+
+    @BeforeAll
+    static void setUpBeanValidation() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeBeanValidation() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testFieldErrorsMatchBeanValidation() {
+        List<Consumer<PaymentDetails>> mutations = List.of(
+                p -> { },
+                p -> p.setTransactionId(null),
+                p -> p.setTransactionId(""),
+                p -> p.setTransactionId("   "),
+                p -> p.setMerchantEmail(null),
+                p -> p.setMerchantEmail(""),
+                p -> p.setMerchantEmail("   "),
+                p -> p.setMerchantEmail("invalid-email"),
+                p -> p.setMerchantEmail("merchant@"),
+                p -> p.setMerchantEmail("@example.com"),
+                p -> p.setMerchantEmail("merchant@example."),
+                p -> p.setMerchantEmail("merchant@localhost"),
+                p -> p.setMerchantEmail("first.last+tag@sub.example.co.uk"),
+                p -> p.setMerchantEmail("first..last@example.com"),
+                p -> p.setMerchantEmail("\"quoted name\"@example.com"),
+                p -> p.setMerchantEmail("merchant@[192.168.0.1]"),
+                p -> p.setMerchantEmail("merchant@-example.com"),
+                p -> p.setMerchantEmail("händler@bücher.de"),
+                p -> p.setMerchantEmail("a".repeat(65) + "@example.com"),
+                p -> p.setMerchantName(null),
+                p -> p.setMerchantName("\t"),
+                p -> p.setAmount(null),
+                p -> p.setCurrency(null),
+                p -> p.setPaymentMethod(""),
+                p -> p.setPaymentStatus(null),
+                p -> {
+                    p.setTransactionId(null);
+                    p.setMerchantEmail("not-an-email");
+                    p.setAmount(null);
+                    p.setPaymentStatus(" ");
+                }
+        );
+
+        for (Consumer<PaymentDetails> mutation : mutations) {
+            PaymentDetails paymentDetails = createValidPaymentDetails();
+            mutation.accept(paymentDetails);
+
+            assertEquals(beanValidationErrors(paymentDetails), fieldErrors(paymentDetails),
+                    "merchantEmail=" + paymentDetails.getMerchantEmail());
+        }
+    }
+
+    @Test
+    void testCorpusMatchesBeanValidation() {
+        Random random = new Random(42);
+        List<PaymentDetails> corpus = new ArrayList<>();
+        for (String email : EMAIL_CORPUS) {
+            PaymentDetails paymentDetails = createValidPaymentDetails();
+            paymentDetails.setMerchantEmail(email);
+            corpus.add(paymentDetails);
+        }
+        corpus.add(createValidPaymentDetails());
+        corpus.get(corpus.size() - 1).setMerchantEmail(null);
+        // Random combinations, so errors on several fields at once are compared too
+        for (int i = 0; i < 2000; i++) {
+            PaymentDetails paymentDetails = new PaymentDetails();
+            paymentDetails.setTransactionId(pick(random, TEXT_CORPUS));
+            paymentDetails.setMerchantEmail(random.nextBoolean() ? pick(random, EMAIL_CORPUS) : pick(random, TEXT_CORPUS));
+            paymentDetails.setMerchantName(pick(random, TEXT_CORPUS));
+            paymentDetails.setAmount(random.nextBoolean() ? new BigDecimal("100.50") : null);
+            paymentDetails.setCurrency(pick(random, TEXT_CORPUS));
+            paymentDetails.setPaymentMethod(pick(random, TEXT_CORPUS));
+            paymentDetails.setPaymentStatus(pick(random, TEXT_CORPUS));
+            corpus.add(paymentDetails);
+        }
+
+        for (PaymentDetails paymentDetails : corpus) {
+            assertEquals(beanValidationErrors(paymentDetails), fieldErrors(paymentDetails), paymentDetails::toString);
+        }
+    }
+
+    @Test
+    void testFieldErrorsAreReportedInDeclarationOrder() {
+        PaymentDetails paymentDetails = new PaymentDetails();
+
+        PaymentValidationException ex = assertThrows(PaymentValidationException.class,
+                () -> validator.validate(paymentDetails));
+
+        assertEquals(List.of("transactionId", "merchantEmail", "merchantName", "amount", "currency",
+                        "paymentMethod", "paymentStatus"),
+                ex.getFieldErrors().stream().map(ErrorResponse.FieldError::getField).toList());
+    }
+
+    @Test
+    void testValidPaymentPasses() {
+        PaymentDetails paymentDetails = createValidPaymentDetails();
+        paymentDetails.setPaymentStatus("success");
+
+        assertDoesNotThrow(() -> validator.validate(paymentDetails));
+        assertTrue(validator.fieldErrors(paymentDetails).isEmpty());
+    }
+
+    @Test
+    void testFailedPaymentRequiresFailureReason() {
+        PaymentDetails paymentDetails = createValidPaymentDetails();
+        paymentDetails.setPaymentStatus("FAILED");
+        paymentDetails.setFailureReason("  ");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(paymentDetails));
+        assertEquals("Failure reason is required when payment status is FAILED", ex.getMessage());
+
+        paymentDetails.setFailureReason("Insufficient funds");
+        assertDoesNotThrow(() -> validator.validate(paymentDetails));
+    }
+
+    @Test
+    void testUnknownPaymentStatusIsRejected() {
+        PaymentDetails paymentDetails = createValidPaymentDetails();
+        paymentDetails.setPaymentStatus("PENDING");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(paymentDetails));
+        assertEquals("Invalid payment status: PENDING", ex.getMessage());
+    }
+
+    private static Set<String> beanValidationErrors(PaymentDetails paymentDetails) {
+        return beanValidator.validate(paymentDetails).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.toSet());
+    }
+
+    private Set<String> fieldErrors(PaymentDetails paymentDetails) {
+        Set<String> errors = new HashSet<>();
+        for (ErrorResponse.FieldError error : validator.fieldErrors(paymentDetails)) {
+            assertTrue(errors.add(error.getField() + ": " + error.getMessage()));
+        }
+        return errors;
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private PaymentDetails createValidPaymentDetails() {
+        PaymentDetails paymentDetails = new PaymentDetails();
+        paymentDetails.setTransactionId("TXN123456789");
+        paymentDetails.setMerchantEmail("merchant@example.com");
+        paymentDetails.setMerchantName("Test Merchant");
+        paymentDetails.setAmount(new BigDecimal("100.50"));
+        paymentDetails.setCurrency("USD");
+        paymentDetails.setPaymentMethod("Credit Card");
+        paymentDetails.setPaymentStatus("SUCCESS");
+        return paymentDetails;
+    }
+}
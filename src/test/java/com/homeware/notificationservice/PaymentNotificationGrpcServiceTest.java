@@ -0,0 +1,201 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.admission.AdaptiveConcurrencyLimiter;
+import com.homeware.notificationservice.dto.ErrorResponse;
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.DuplicateTransactionException;
+import com.homeware.notificationservice.exception.PaymentValidationException;
+import com.homeware.notificationservice.grpc.PaymentNotificationGrpcService;
+import com.homeware.notificationservice.grpc.PaymentNotificationMapper;
+import com.homeware.notificationservice.grpc.v1.PaymentNotification;
+import com.homeware.notificationservice.grpc.v1.SubmitBatchResult;
+import com.homeware.notificationservice.grpc.v1.SubmitResult;
+import com.homeware.notificationservice.service.PaymentNotificationProcessor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class PaymentNotificationGrpcServiceTest {
+
+    private PaymentNotificationProcessor paymentNotificationProcessor;
+    private AdaptiveConcurrencyLimiter limiter;
+    private PaymentNotificationGrpcService service;
+
+    @BeforeEach
+    void setUp() {
+        paymentNotificationProcessor = mock(PaymentNotificationProcessor.class);
+        limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 0.2, 1.5, 600);
+        service = new PaymentNotificationGrpcService(paymentNotificationProcessor, limiter,
+                OpenTelemetry.noop().getTracer("test"), 100, ZoneOffset.UTC);
+    }
+
+    @Test
+    void testSubmitDeliversPayment() {
+        when(paymentNotificationProcessor.process(any(PaymentDetails.class)))
+                .thenReturn(PaymentNotificationProcessor.Outcome.DELIVERED);
+        RecordingObserver<SubmitResult> observer = new RecordingObserver<>();
+
+        service.submit(createMessage("TXN123456789"), observer);
+
+        assertTrue(observer.completed);
+        assertEquals(1, observer.values.size());
+        assertEquals(SubmitResult.Outcome.DELIVERED, observer.values.get(0).getOutcome());
+        assertEquals("TXN123456789", observer.values.get(0).getTransactionId());
+        verify(paymentNotificationProcessor).process(argThat(p ->
+                "TXN123456789".equals(p.getTransactionId())
+                        && new BigDecimal("100.50").equals(p.getAmount())
+                        && p.getFailureReason() == null));
+    }
+
+    @Test
+    void testSubmitReturnsFieldErrorsForInvalidPayment() {
+        when(paymentNotificationProcessor.process(any(PaymentDetails.class)))
+                .thenThrow(new PaymentValidationException(List.of(
+                        new ErrorResponse.FieldError("merchantEmail", "Invalid email address"))));
+        RecordingObserver<SubmitResult> observer = new RecordingObserver<>();
+
+        service.submit(createMessage("TXN123"), observer);
+
+        SubmitResult result = observer.values.get(0);
+        assertEquals(SubmitResult.Outcome.INVALID, result.getOutcome());
+        assertEquals("Invalid input data", result.getMessage());
+        assertEquals("merchantEmail", result.getFieldErrors(0).getField());
+        assertEquals("Invalid email address", result.getFieldErrors(0).getMessage());
+    }
+
+    @Test
+    void testSubmitStreamReturnsOneResultPerMessage() {
+        when(paymentNotificationProcessor.process(any(PaymentDetails.class)))
+                .thenReturn(PaymentNotificationProcessor.Outcome.DELIVERED)
+                .thenThrow(new DuplicateTransactionException("Transaction ID already exists"))
+                .thenReturn(PaymentNotificationProcessor.Outcome.QUEUED)
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        RecordingObserver<SubmitBatchResult> observer = new RecordingObserver<>();
+
+        StreamObserver<PaymentNotification> requests = service.submitStream(observer);
+        requests.onNext(createMessage("TXN1"));
+        requests.onNext(createMessage("TXN2"));
+        requests.onNext(createMessage("TXN3"));
+        requests.onNext(createMessage("TXN4"));
+        assertTrue(observer.values.isEmpty());
+        requests.onCompleted();
+
+        assertTrue(observer.completed);
+        SubmitBatchResult batch = observer.values.get(0);
+        assertEquals(4, batch.getResultsCount());
+        assertEquals(SubmitResult.Outcome.DELIVERED, batch.getResults(0).getOutcome());
+        assertEquals(SubmitResult.Outcome.DUPLICATE, batch.getResults(1).getOutcome());
+        assertEquals("Transaction ID already exists", batch.getResults(1).getMessage());
+        assertEquals(SubmitResult.Outcome.QUEUED, batch.getResults(2).getOutcome());
+        assertEquals(SubmitResult.Outcome.ERROR, batch.getResults(3).getOutcome());
+        assertEquals("An error occurred while accessing the database", batch.getResults(3).getMessage());
+        assertEquals("TXN4", batch.getResults(3).getTransactionId());
+        assertEquals(2, batch.getAccepted());
+        assertEquals(2, batch.getRejected());
+    }
+
+    @Test
+    void testSubmitStreamFailsBeyondMessageCap() {
+        when(paymentNotificationProcessor.process(any(PaymentDetails.class)))
+                .thenReturn(PaymentNotificationProcessor.Outcome.DELIVERED);
+        PaymentNotificationGrpcService capped = new PaymentNotificationGrpcService(paymentNotificationProcessor, limiter,
+                OpenTelemetry.noop().getTracer("test"), 2, ZoneOffset.UTC);
+        RecordingObserver<SubmitBatchResult> observer = new RecordingObserver<>();
+
+        StreamObserver<PaymentNotification> requests = capped.submitStream(observer);
+        requests.onNext(createMessage("TXN1"));
+        requests.onNext(createMessage("TXN2"));
+        requests.onNext(createMessage("TXN3"));
+        requests.onNext(createMessage("TXN4"));
+        requests.onCompleted();
+
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, ((StatusRuntimeException) observer.error).getStatus().getCode());
+        assertTrue(observer.values.isEmpty());
+        assertFalse(observer.completed);
+        verify(paymentNotificationProcessor, times(2)).process(any(PaymentDetails.class));
+    }
+
+    @Test
+    void testMapperRoundTripPreservesAmountDateAndAbsentFields() {
+        PaymentDetails paymentDetails = new PaymentDetails();
+        paymentDetails.setTransactionId("TXN123");
+        paymentDetails.setMerchantEmail("merchant@example.com");
+        paymentDetails.setAmount(new BigDecimal("-12345678901234567890.0042"));
+        paymentDetails.setPaymentStatus("FAILED");
+        paymentDetails.setFailureReason("");
+        paymentDetails.setTransactionDate(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456789));
+
+        PaymentDetails roundTripped = PaymentNotificationMapper.toPaymentDetails(
+                PaymentNotificationMapper.toMessage(paymentDetails, ZoneOffset.UTC), ZoneOffset.UTC);
+
+        assertEquals(paymentDetails.getAmount(), roundTripped.getAmount());
+        assertEquals(paymentDetails.getAmount().scale(), roundTripped.getAmount().scale());
+        assertEquals(paymentDetails.getTransactionDate(), roundTripped.getTransactionDate());
+        assertEquals("", roundTripped.getFailureReason());
+        assertNull(roundTripped.getCustomerEmail());
+        assertEquals("", roundTripped.getMerchantName());
+    }
+
+    @Test
+    void testMapperReadsTimestampsInDeliveryZone() {
+        PaymentDetails paymentDetails = new PaymentDetails();
+        paymentDetails.setSendAt(LocalDateTime.of(2024, 3, 10, 9, 0));
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+
+        PaymentNotification message = PaymentNotificationMapper.toMessage(paymentDetails, tokyo);
+
+        // 09:00 in Tokyo is 00:00 UTC, and a scheduler running in New York sees it as the previous evening
+        assertEquals(LocalDateTime.of(2024, 3, 10, 0, 0).toEpochSecond(ZoneOffset.UTC), message.getSendAt().getSeconds());
+        assertEquals(LocalDateTime.of(2024, 3, 9, 19, 0),
+                PaymentNotificationMapper.toPaymentDetails(message, ZoneId.of("America/New_York")).getSendAt());
+    }
+
+    private PaymentNotification createMessage(String transactionId) {
+        PaymentDetails paymentDetails = new PaymentDetails();
+        paymentDetails.setTransactionId(transactionId);
+        paymentDetails.setMerchantEmail("merchant@example.com");
+        paymentDetails.setMerchantName("Test Merchant");
+        paymentDetails.setAmount(new BigDecimal("100.50"));
+        paymentDetails.setCurrency("USD");
+        paymentDetails.setPaymentMethod("Credit Card");
+        paymentDetails.setPaymentStatus("SUCCESS");
+        return PaymentNotificationMapper.toMessage(paymentDetails, ZoneOffset.UTC);
+    }
+
+    private static class RecordingObserver<T> implements StreamObserver<T> {
+        private final List<T> values = new ArrayList<>();
+        private boolean completed;
+        private Throwable error;
+
+        @Override
+        public void onNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
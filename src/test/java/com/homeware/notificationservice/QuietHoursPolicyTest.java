@@ -0,0 +1,81 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.scheduling.QuietHoursPolicy;
+import com.homeware.notificationservice.scheduling.ScheduleProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuietHoursPolicyTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Test
+    void testOutsideWindowIsSentImmediately() {
+        QuietHoursPolicy policy = new QuietHoursPolicy(quietHours("22:00", "08:00", "UTC"), UTC);
+        LocalDateTime at = LocalDateTime.of(2024, 3, 10, 14, 0);
+
+        assertEquals(at, policy.releaseTime("merchant@example.com", at));
+    }
+
+    @Test
+    void testWindowWrappingMidnightReleasesNextMorning() {
+        QuietHoursPolicy policy = new QuietHoursPolicy(quietHours("22:00", "08:00", "UTC"), UTC);
+
+        assertEquals(LocalDateTime.of(2024, 3, 11, 8, 0),
+                policy.releaseTime("merchant@example.com", LocalDateTime.of(2024, 3, 10, 23, 15)));
+        assertEquals(LocalDateTime.of(2024, 3, 11, 8, 0),
+                policy.releaseTime("merchant@example.com", LocalDateTime.of(2024, 3, 11, 3, 0)));
+    }
+
+    @Test
+    void testWindowEndIsNotQuiet() {
+        QuietHoursPolicy policy = new QuietHoursPolicy(quietHours("22:00", "08:00", "UTC"), UTC);
+        LocalDateTime at = LocalDateTime.of(2024, 3, 11, 8, 0);
+
+        assertEquals(at, policy.releaseTime("merchant@example.com", at));
+    }
+
+    @Test
+    void testWindowIsEvaluatedInMerchantZone() {
+        // 13:00 UTC is 22:00 in Tokyo, so the receipt waits until 08:00 Tokyo (23:00 UTC)
+        QuietHoursPolicy policy = new QuietHoursPolicy(quietHours("21:00", "08:00", "Asia/Tokyo"), UTC);
+
+        assertEquals(LocalDateTime.of(2024, 3, 10, 23, 0),
+                policy.releaseTime("merchant@example.com", LocalDateTime.of(2024, 3, 10, 13, 0)));
+    }
+
+    @Test
+    void testMerchantOverrideReplacesDefaults() {
+        ScheduleProperties.QuietHours quietHours = quietHours("22:00", "08:00", "UTC");
+        ScheduleProperties.Window override = new ScheduleProperties.Window();
+        override.setStart("12:00");
+        override.setEnd("13:00");
+        quietHours.getMerchants().put("Lunch@Example.com", override);
+        QuietHoursPolicy policy = new QuietHoursPolicy(quietHours, UTC);
+
+        assertEquals(LocalDateTime.of(2024, 3, 10, 13, 0),
+                policy.releaseTime("lunch@example.com", LocalDateTime.of(2024, 3, 10, 12, 30)));
+        LocalDateTime lateNight = LocalDateTime.of(2024, 3, 10, 23, 0);
+        assertEquals(lateNight, policy.releaseTime("lunch@example.com", lateNight));
+    }
+
+    @Test
+    void testEqualStartAndEndDisablesWindow() {
+        QuietHoursPolicy policy = new QuietHoursPolicy(new ScheduleProperties.QuietHours(), UTC);
+        LocalDateTime at = LocalDateTime.of(2024, 3, 10, 3, 0);
+
+        assertEquals(at, policy.releaseTime("merchant@example.com", at));
+    }
+
+    private static ScheduleProperties.QuietHours quietHours(String start, String end, String zone) {
+        ScheduleProperties.QuietHours quietHours = new ScheduleProperties.QuietHours();
+        quietHours.getDefaults().setStart(start);
+        quietHours.getDefaults().setEnd(end);
+        quietHours.getDefaults().setZone(zone);
+        return quietHours;
+    }
+}
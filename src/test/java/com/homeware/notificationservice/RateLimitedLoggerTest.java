@@ -0,0 +1,58 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.exception.RateLimitedLogger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RateLimitedLoggerTest {
+
+    @Test
+    void testLinesOverBudgetAreSuppressed() {
+        Logger logger = mock(Logger.class);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, 3, Duration.ofHours(1));
+
+        for (int i = 0; i < 10; i++) {
+            rateLimited.warn("Duplicate transaction: {}", "TXN" + i);
+        }
+
+        verify(logger, times(3)).warn(eq("Duplicate transaction: {}"), any(Object.class));
+        assertEquals(7, rateLimited.getSuppressedCount());
+    }
+
+    @Test
+    void testSuppressedCountIsReportedInNextWindow() throws Exception {
+        Logger logger = mock(Logger.class);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, 1, Duration.ofMillis(50));
+
+        rateLimited.warn("Duplicate transaction: {}", "TXN1");
+        rateLimited.warn("Duplicate transaction: {}", "TXN2");
+        rateLimited.warn("Duplicate transaction: {}", "TXN3");
+        Thread.sleep(100);
+        rateLimited.warn("Duplicate transaction: {}", "TXN4");
+
+        verify(logger).warn("{} similar messages suppressed", 2L);
+        verify(logger).warn("Duplicate transaction: {}", "TXN4");
+        assertEquals(0, rateLimited.getSuppressedCount());
+    }
+
+    @Test
+    void testNothingIsCountedWhenWarnIsDisabled() {
+        Logger logger = mock(Logger.class);
+        RateLimitedLogger rateLimited = new RateLimitedLogger(logger, 1, Duration.ofHours(1));
+
+        rateLimited.warn("Validation error on {} field(s) for {}", 1, "/api/notifications/payment");
+        rateLimited.warn("Validation error on {} field(s) for {}", 1, "/api/notifications/payment");
+
+        verify(logger, never()).warn(anyString(), any(Object.class), any(Object.class));
+        assertEquals(0, rateLimited.getSuppressedCount());
+    }
+}
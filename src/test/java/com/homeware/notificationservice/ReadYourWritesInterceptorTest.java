@@ -0,0 +1,71 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.replica.ReadYourWritesInterceptor;
+import com.homeware.notificationservice.replica.ReplicaRoutingContext;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesInterceptorTest {
+
+    private final ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    void testRequestWithoutTokenMayUseAnyReplica() {
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/notifications/payments"), response, null);
+
+        assertEquals(0, ReplicaRoutingContext.requiredLsn());
+    }
+
+    @Test
+    void testCookieTokenRequiresReplayedPosition() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications/payments");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.WRITE_LSN_COOKIE, "4096"));
+
+        interceptor.preHandle(request, response, null);
+
+        assertEquals(4096, ReplicaRoutingContext.requiredLsn());
+    }
+
+    @Test
+    void testHeaderTokenTakesPrecedenceOverCookie() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications/payments");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.WRITE_LSN_COOKIE, "4096"));
+        request.addHeader(ReadYourWritesInterceptor.WRITE_LSN_HEADER, "8192");
+
+        interceptor.preHandle(request, response, null);
+
+        assertEquals(8192, ReplicaRoutingContext.requiredLsn());
+    }
+
+    @Test
+    void testUnreadableTokenPinsReadToPrimary() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications/payments");
+        request.addHeader(ReadYourWritesInterceptor.WRITE_LSN_HEADER, "0/16B3748");
+
+        interceptor.preHandle(request, response, null);
+
+        assertEquals(Long.MAX_VALUE, ReplicaRoutingContext.requiredLsn());
+    }
+
+    @Test
+    void testPositionIsClearedAfterRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications/payments");
+        request.addHeader(ReadYourWritesInterceptor.WRITE_LSN_HEADER, "8192");
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(0, ReplicaRoutingContext.requiredLsn());
+    }
+}
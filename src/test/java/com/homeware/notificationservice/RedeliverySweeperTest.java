@@ -0,0 +1,298 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.service.EmailNotificationService;
+import com.homeware.notificationservice.service.RedeliverySweeper;
+import com.homeware.notificationservice.sharding.ShardContext;
+import com.homeware.notificationservice.sharding.ShardRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RedeliverySweeperTest {
+
+    private PaymentDetailsRepository paymentDetailsRepository;
+    private EmailNotificationService emailNotificationService;
+    private ObjectProvider<ShardRing> shardRing;
+    private TransactionTemplate transactionTemplate;
+    private RedeliverySweeper sweeper;
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        paymentDetailsRepository = mock(PaymentDetailsRepository.class);
+        emailNotificationService = mock(EmailNotificationService.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+
+        when(paymentDetailsRepository.renewLease(anyString(), any(), any())).thenReturn(1);
+
+        shardRing = mock(ObjectProvider.class);
+
+        sweeper = createSweeper(Clock.systemDefaultZone());
+    }
+
+    private RedeliverySweeper createSweeper(Clock clock) {
+        RedeliverySweeper created = new RedeliverySweeper(paymentDetailsRepository, emailNotificationService,
+                transactionTemplate, shardRing, clock);
+        ReflectionTestUtils.setField(created, "batchSize", 10);
+        ReflectionTestUtils.setField(created, "claimDelaySeconds", 120L);
+        ReflectionTestUtils.setField(created, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(created, "sendTimeoutMs", 30000L);
+        ReflectionTestUtils.setField(created, "maxAttempts", 3);
+        ReflectionTestUtils.setField(created, "backoffSeconds", 60L);
+        ReflectionTestUtils.setField(created, "maxBackoffSeconds", 3600L);
+        return created;
+    }
+
+    @Test
+    void testClaimedRowIsResentAndMarkedDelivered() {
+        com.homeware.notificationservice.entity.PaymentDetails row = createPendingRow("TXN1", 0);
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of(row));
+
+        sweeper.sweep();
+
+        verify(emailNotificationService, times(1)).sendPaymentNotification(any(PaymentDetails.class));
+        verify(paymentDetailsRepository, times(1)).markDelivered(eq("TXN1"), any());
+        // Leased during the claim so other sweepers skip it while the email is sent
+        assertTrue(row.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(200)));
+    }
+
+    @Test
+    void testEmailIsSentOutsideTheClaimTransaction() {
+        com.homeware.notificationservice.entity.PaymentDetails row = createPendingRow("TXN5", 0);
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of(row));
+        List<Boolean> sentInTransaction = new ArrayList<>();
+        doAnswer(invocation -> sentInTransaction.add(inTransaction.get()))
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        sweeper.sweep();
+
+        assertEquals(List.of(false), sentInTransaction);
+        verify(paymentDetailsRepository, times(1)).markDelivered(eq("TXN5"), any());
+    }
+
+    @Test
+    void testFailedAttemptIsRescheduledWithBackoff() {
+        com.homeware.notificationservice.entity.PaymentDetails row = createPendingRow("TXN2", 1);
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of(row));
+        doThrow(new MailException("SMTP server unavailable") {})
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        sweeper.sweep();
+
+        verify(paymentDetailsRepository, times(1)).recordFailedAttempt(eq("TXN2"), eq(2), any(),
+                argThat(next -> next.isAfter(LocalDateTime.now().plusSeconds(100))));
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+        verify(paymentDetailsRepository, never()).markAbandoned(any(), anyInt(), any());
+    }
+
+    @Test
+    void testRowIsAbandonedAfterMaxAttempts() {
+        com.homeware.notificationservice.entity.PaymentDetails row = createPendingRow("TXN3", 2);
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of(row));
+        doThrow(new MailException("SMTP server unavailable") {})
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        sweeper.sweep();
+
+        verify(paymentDetailsRepository, times(1)).markAbandoned(eq("TXN3"), eq(3), any());
+        verify(paymentDetailsRepository, never()).recordFailedAttempt(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testDeferredSendDoesNotCountAsAttempt() {
+        com.homeware.notificationservice.entity.PaymentDetails row = createPendingRow("TXN4", 1);
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of(row));
+        doThrow(new NotificationDeferredException("Notification dispatch lane SUCCESS is saturated"))
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        sweeper.sweep();
+
+        verify(paymentDetailsRepository, times(1)).deferDelivery(eq("TXN4"),
+                argThat(next -> next.isAfter(LocalDateTime.now())), any());
+        verify(paymentDetailsRepository, never()).recordFailedAttempt(any(), anyInt(), any(), any());
+        verify(paymentDetailsRepository, never()).markAbandoned(any(), anyInt(), any());
+    }
+
+    @Test
+    void testRowWhoseLeaseWasLostIsNotSent() {
+        com.homeware.notificationservice.entity.PaymentDetails row = createPendingRow("TXN6", 0);
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of(row));
+        when(paymentDetailsRepository.renewLease(eq("TXN6"), any(), any())).thenReturn(0);
+
+        sweeper.sweep();
+
+        verify(emailNotificationService, never()).sendPaymentNotification(any());
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+    }
+
+    @Test
+    void testClaimIsCappedToRowsThatFitInOneLease() {
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of());
+        ReflectionTestUtils.setField(sweeper, "batchSize", 50);
+
+        sweeper.sweep();
+
+        // 300s lease / 30s send timeout, less one row of margin
+        verify(paymentDetailsRepository).claimPendingDeliveries(any(), eq(9));
+    }
+
+    @Test
+    void testRowIsNotReclaimedWhileItsBatchIsStillRunning() {
+        // Every send waits the full send timeout, while a second node keeps trying to claim
+        MutableClock clock = new MutableClock(Instant.parse("2024-03-10T12:00:00Z"));
+        RedeliverySweeper slowSweeper = createSweeper(clock);
+        ReflectionTestUtils.setField(slowSweeper, "batchSize", 50);
+        LocalDateTime start = LocalDateTime.now(clock);
+        List<com.homeware.notificationservice.entity.PaymentDetails> table = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            com.homeware.notificationservice.entity.PaymentDetails row = createPendingRow("TXN-" + i, 0);
+            row.setNextAttemptAt(start.minusMinutes(10));
+            table.add(row);
+        }
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenAnswer(invocation -> {
+            LocalDateTime dueBefore = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return table.stream()
+                    .filter(row -> row.getDeliveryStatus().equals("PENDING") && !row.getNextAttemptAt().isAfter(dueBefore))
+                    .limit(limit)
+                    .toList();
+        });
+        when(paymentDetailsRepository.renewLease(anyString(), any(), any())).thenAnswer(invocation -> {
+            for (com.homeware.notificationservice.entity.PaymentDetails row : table) {
+                if (row.getTransactionId().equals(invocation.getArgument(0))
+                        && row.getNextAttemptAt().equals(invocation.getArgument(1))) {
+                    row.setNextAttemptAt(invocation.getArgument(2));
+                    return 1;
+                }
+            }
+            return 0;
+        });
+        List<String> sent = new ArrayList<>();
+        List<String> claimableWhileSending = new ArrayList<>();
+        doAnswer(invocation -> {
+            PaymentDetails dto = invocation.getArgument(0);
+            sent.add(dto.getTransactionId());
+            clock.advance(Duration.ofSeconds(30));
+            // Rows leased by this sweep but not yet sent must not be due for the other node
+            LocalDateTime otherNodeDueBefore = LocalDateTime.now(clock).minusSeconds(120);
+            table.stream()
+                    .filter(row -> !sent.contains(row.getTransactionId()) && row.getNextAttemptAt().isAfter(start)
+                            && !row.getNextAttemptAt().isAfter(otherNodeDueBefore))
+                    .forEach(row -> claimableWhileSending.add(row.getTransactionId()));
+            return null;
+        }).when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+        doAnswer(invocation -> {
+            table.stream().filter(row -> row.getTransactionId().equals(invocation.getArgument(0)))
+                    .forEach(row -> row.setDeliveryStatus("DELIVERED"));
+            return 1;
+        }).when(paymentDetailsRepository).markDelivered(anyString(), any());
+
+        slowSweeper.sweep();
+
+        assertEquals(50, sent.size());
+        assertEquals(50, sent.stream().distinct().count());
+        assertEquals(List.of(), claimableWhileSending);
+    }
+
+    @Test
+    void testNothingClaimedSendsNothing() {
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenReturn(List.of());
+
+        sweeper.sweep();
+
+        verify(emailNotificationService, never()).sendPaymentNotification(any());
+    }
+
+    @Test
+    void testEveryShardIsSweptWithItsShardPinned() {
+        ShardRing ring = new ShardRing(List.of("shard-a", "shard-b"), 16);
+        when(shardRing.getIfAvailable()).thenReturn(ring);
+        List<String> sweptShards = new ArrayList<>();
+        when(paymentDetailsRepository.claimPendingDeliveries(any(), anyInt())).thenAnswer(invocation -> {
+            sweptShards.add(ShardContext.current());
+            return List.of();
+        });
+
+        sweeper.sweep();
+
+        assertEquals(List.of("shard-a", "shard-b"), sweptShards);
+        assertNull(ShardContext.current());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private com.homeware.notificationservice.entity.PaymentDetails createPendingRow(String transactionId, int attempts) {
+        com.homeware.notificationservice.entity.PaymentDetails row = new com.homeware.notificationservice.entity.PaymentDetails();
+        row.setTransactionId(transactionId);
+        row.setMerchantEmail("merchant@example.com");
+        row.setMerchantName("Test Merchant");
+        row.setAmount(new BigDecimal("100.50"));
+        row.setCurrency("USD");
+        row.setPaymentMethod("Credit Card");
+        row.setPaymentStatus("SUCCESS");
+        row.setDeliveryStatus(com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_PENDING);
+        row.setDeliveryAttempts(attempts);
+        row.setNextAttemptAt(LocalDateTime.now().minusMinutes(5));
+        return row;
+    }
+}
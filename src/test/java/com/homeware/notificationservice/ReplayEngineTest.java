@@ -0,0 +1,329 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.NotificationDeferredException;
+import com.homeware.notificationservice.exception.RecipientSuppressedException;
+import com.homeware.notificationservice.replay.ReplayJob;
+import com.homeware.notificationservice.replay.ReplayJobStore;
+import com.homeware.notificationservice.replay.ReplayProperties;
+import com.homeware.notificationservice.replay.ReplayRequest;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.service.EmailNotificationService;
+import com.homeware.notificationservice.service.ReplayEngine;
+import com.homeware.notificationservice.sharding.ShardRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReplayEngineTest {
+
+    // Delivery times come from the configured clock and zone, not the JVM's
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-10T12:00:00Z"), ZoneId.of("Europe/Berlin"));
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 10, 13, 0);
+
+    private PaymentDetailsRepository paymentDetailsRepository;
+    private EmailNotificationService emailNotificationService;
+    private ReplayJobStore replayJobStore;
+    private ReplayProperties properties;
+    private ReplayEngine replayEngine;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        paymentDetailsRepository = mock(PaymentDetailsRepository.class);
+        emailNotificationService = mock(EmailNotificationService.class);
+        replayJobStore = mock(ReplayJobStore.class);
+        when(replayJobStore.create(any(ReplayJob.class))).thenAnswer(invocation -> {
+            ReplayJob job = invocation.getArgument(0);
+            job.setId(1L);
+            job.setStatus(ReplayJob.RUNNING);
+            return true;
+        });
+        when(replayJobStore.checkpoint(any(ReplayJob.class), anyString(), anyLong(), anyBoolean())).thenReturn(true);
+        when(replayJobStore.heartbeat(any(ReplayJob.class))).thenReturn(true);
+
+        ObjectProvider<ShardRing> shardRing = mock(ObjectProvider.class);
+
+        properties = new ReplayProperties();
+        properties.setChunkSize(2);
+        properties.setDeferralBackoffMs(1);
+        properties.setMaxPerSecond(0);
+
+        replayEngine = new ReplayEngine(paymentDetailsRepository, emailNotificationService, replayJobStore,
+                shardRing, properties, CLOCK, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayEngine.stop();
+    }
+
+    @Test
+    void testMatchingRowsAreSentInCheckpointedChunks() {
+        stubChunk(0L, List.of(createRow(1L, "TXN1"), createRow(2L, "TXN2")));
+        stubChunk(2L, List.of(createRow(3L, "TXN3")));
+
+        ReplayJob job = replayEngine.start(new ReplayRequest()).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).finish(job, ReplayJob.COMPLETED, null);
+        verify(emailNotificationService, times(3)).sendPaymentNotification(any(PaymentDetails.class));
+        verify(paymentDetailsRepository).markDelivered("TXN1", NOW);
+        verify(paymentDetailsRepository).markDelivered(eq("TXN3"), any());
+        verify(replayJobStore).checkpoint(job, "default", 2L, false);
+        verify(replayJobStore).checkpoint(job, "default", 3L, true);
+        assertEquals(3, job.getProcessed());
+        assertEquals(3, job.getSent());
+        assertEquals(List.of("DELIVERED", "ABANDONED"), job.getDeliveryStatuses());
+    }
+
+    @Test
+    void testDryRunRendersWithoutSendingOrUpdating() {
+        stubChunk(0L, List.of(createRow(1L, "TXN1")));
+        when(emailNotificationService.renderPaymentNotification(any(PaymentDetails.class)))
+                .thenReturn(null);
+        ReplayRequest request = new ReplayRequest();
+        request.setDryRun(true);
+
+        ReplayJob job = replayEngine.start(request).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).finish(job, ReplayJob.COMPLETED, null);
+        verify(emailNotificationService, never()).sendPaymentNotification(any(PaymentDetails.class));
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+        verify(paymentDetailsRepository, never()).markSuppressed(any(), any());
+        assertEquals(1, job.getSent());
+    }
+
+    @Test
+    void testDeferredSendIsRetriedAfterBackoff() {
+        stubChunk(0L, List.of(createRow(1L, "TXN1")));
+        doThrow(new NotificationDeferredException("Notification dispatch lane SUCCESS is saturated"))
+                .doNothing()
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        ReplayJob job = replayEngine.start(new ReplayRequest()).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).finish(job, ReplayJob.COMPLETED, null);
+        verify(emailNotificationService, times(2)).sendPaymentNotification(any(PaymentDetails.class));
+        verify(paymentDetailsRepository, times(1)).markDelivered(eq("TXN1"), any());
+        assertEquals(1, job.getDeferred());
+        assertEquals(1, job.getSent());
+    }
+
+    @Test
+    void testSuppressedAndFailedSendsAreCounted() {
+        stubChunk(0L, List.of(createRow(1L, "TXN1"), createRow(2L, "TXN2")));
+        stubChunk(2L, List.of());
+        doThrow(new RecipientSuppressedException("Recipient is on the suppression list"))
+                .doThrow(new MailException("SMTP server unavailable") {})
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        ReplayJob job = replayEngine.start(new ReplayRequest()).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).finish(job, ReplayJob.COMPLETED, null);
+        verify(paymentDetailsRepository, times(1)).markSuppressed(anyString(), any());
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+        assertEquals(1, job.getSuppressed());
+        assertEquals(1, job.getFailed());
+        assertEquals(0, job.getSent());
+    }
+
+    @Test
+    void testSentRowThatCannotBeMarkedIsNotCountedAsFailed() {
+        stubChunk(0L, List.of(createRow(1L, "TXN1")));
+        when(paymentDetailsRepository.markDelivered(anyString(), any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        ReplayJob job = replayEngine.start(new ReplayRequest()).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).finish(job, ReplayJob.COMPLETED, null);
+        verify(emailNotificationService, times(1)).sendPaymentNotification(any(PaymentDetails.class));
+        assertEquals(1, job.getUnmarked());
+        assertEquals(0, job.getFailed());
+        assertEquals(0, job.getSent());
+        assertEquals(1, job.getProcessed());
+    }
+
+    @Test
+    void testCancelledJobStopsAtNextCheckpoint() {
+        stubChunk(0L, List.of(createRow(1L, "TXN1"), createRow(2L, "TXN2")));
+        when(replayJobStore.checkpoint(any(ReplayJob.class), anyString(), anyLong(), anyBoolean())).thenReturn(false);
+
+        ReplayJob job = replayEngine.start(new ReplayRequest()).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).checkpoint(job, "default", 2L, false);
+        verify(paymentDetailsRepository, after(200).never())
+                .findReplayChunk(eq(2L), any(), any(), anyList(), anyList(), any(Pageable.class));
+        verify(replayJobStore, never()).finish(any(), any(), any());
+    }
+
+    @Test
+    void testHeartbeatIsWrittenWhileAPageIsDeferred() {
+        properties.setHeartbeatIntervalMs(20);
+        properties.setDeferralBackoffMs(50);
+        stubChunk(0L, List.of(createRow(1L, "TXN1")));
+        doThrow(new NotificationDeferredException("Notification dispatch lane SUCCESS is saturated"))
+                .doThrow(new NotificationDeferredException("Notification dispatch lane SUCCESS is saturated"))
+                .doNothing()
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+
+        ReplayJob job = replayEngine.start(new ReplayRequest()).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).finish(job, ReplayJob.COMPLETED, null);
+        verify(replayJobStore, atLeast(2)).heartbeat(job);
+        verify(replayJobStore).checkpoint(job, "default", 1L, true);
+    }
+
+    @Test
+    void testHeartbeatPublishesCountersOfAPageHeldUpByDeferral() throws InterruptedException {
+        properties.setHeartbeatIntervalMs(20);
+        properties.setDeferralBackoffMs(50);
+        stubChunk(0L, List.of(createRow(1L, "TXN1"), createRow(2L, "TXN2")));
+        doNothing()
+                .doThrow(new NotificationDeferredException("Notification dispatch lane SUCCESS is saturated"))
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+        List<long[]> published = new CopyOnWriteArrayList<>();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(replayJobStore.heartbeat(any(ReplayJob.class))).thenAnswer(invocation -> {
+            ReplayJob job = invocation.getArgument(0);
+            published.add(new long[] {job.getProcessed(), job.getSent(), job.getDeferred()});
+            if (job.getDeferred() < 2) {
+                return true;
+            }
+            cancelled.countDown();
+            return false;
+        });
+        ReplayRequest request = new ReplayRequest();
+        request.setParallelism(1);
+
+        replayEngine.start(request).orElseThrow();
+
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        long[] last = published.get(published.size() - 1);
+        assertEquals(2, last[0]);
+        assertEquals(1, last[1]);
+        assertTrue(last[2] >= 2);
+        verify(replayJobStore, after(200).never()).checkpoint(any(), anyString(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testLostHeartbeatAbandonsPageWithoutCheckpoint() {
+        properties.setHeartbeatIntervalMs(20);
+        stubChunk(0L, List.of(createRow(1L, "TXN1"), createRow(2L, "TXN2")));
+        doThrow(new NotificationDeferredException("Notification dispatch lane SUCCESS is saturated"))
+                .when(emailNotificationService).sendPaymentNotification(any(PaymentDetails.class));
+        when(replayJobStore.heartbeat(any(ReplayJob.class))).thenReturn(false);
+
+        ReplayJob job = replayEngine.start(new ReplayRequest()).orElseThrow();
+
+        verify(replayJobStore, timeout(5000)).heartbeat(job);
+        verify(replayJobStore, after(500).never()).checkpoint(any(), anyString(), anyLong(), anyBoolean());
+        verify(replayJobStore, never()).finish(any(), any(), any());
+        verify(paymentDetailsRepository, never()).markDelivered(any(), any());
+        clearInvocations(emailNotificationService);
+        verify(emailNotificationService, after(200).never()).sendPaymentNotification(any(PaymentDetails.class));
+    }
+
+    @Test
+    void testResumeContinuesFromCheckpoint() {
+        ReplayJob stored = new ReplayJob();
+        stored.setId(7L);
+        stored.setStatus(ReplayJob.RUNNING);
+        stored.setPaymentStatuses(List.of("SUCCESS", "FAILED"));
+        stored.setDeliveryStatuses(List.of("DELIVERED", "ABANDONED"));
+        stored.setParallelism(2);
+        stored.setProcessed(40);
+        stored.setSent(40);
+        stored.getCheckpoints().put("default", 40L);
+        when(replayJobStore.claim(eq(7L), anyString(), eq(NOW.minusSeconds(properties.getStaleAfterSeconds()))))
+                .thenReturn(true);
+        when(replayJobStore.find(7L)).thenReturn(Optional.of(stored));
+        stubChunk(40L, List.of(createRow(41L, "TXN41")));
+
+        Optional<ReplayJob> resumed = replayEngine.resume(7L);
+
+        assertTrue(resumed.isPresent());
+        verify(replayJobStore, timeout(5000)).finish(stored, ReplayJob.COMPLETED, null);
+        verify(paymentDetailsRepository, never())
+                .findReplayChunk(eq(0L), any(), any(), anyList(), anyList(), any(Pageable.class));
+        assertEquals(41, stored.getSent());
+    }
+
+    @Test
+    void testJobThatCannotBeClaimedIsNotResumed() {
+        when(replayJobStore.claim(eq(7L), anyString(), any(LocalDateTime.class))).thenReturn(false);
+
+        assertTrue(replayEngine.resume(7L).isEmpty());
+        verify(replayJobStore, never()).find(anyLong());
+    }
+
+    @Test
+    void testJobIsNotStartedWhileRebalanceIsRunning() {
+        when(replayJobStore.create(any(ReplayJob.class))).thenReturn(false);
+
+        assertTrue(replayEngine.start(new ReplayRequest()).isEmpty());
+        verify(replayJobStore, after(200).never()).finish(any(), any(), any());
+        verifyNoInteractions(paymentDetailsRepository);
+    }
+
+    @Test
+    void testPendingRowsCannotBeReplayed() {
+        ReplayRequest request = new ReplayRequest();
+        request.setDeliveryStatuses(List.of("PENDING"));
+
+        assertThrows(IllegalArgumentException.class, () -> replayEngine.start(request));
+        verify(replayJobStore, never()).create(any());
+    }
+
+    @Test
+    void testInvertedTimeRangeIsRejected() {
+        ReplayRequest request = new ReplayRequest();
+        request.setFrom(LocalDateTime.of(2024, 1, 2, 0, 0));
+        request.setTo(LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> replayEngine.start(request));
+    }
+
+    private void stubChunk(long afterId, List<com.homeware.notificationservice.entity.PaymentDetails> rows) {
+        when(paymentDetailsRepository.findReplayChunk(eq(afterId), any(), any(), anyList(), anyList(), any(Pageable.class)))
+                .thenReturn(rows);
+    }
+
+    private com.homeware.notificationservice.entity.PaymentDetails createRow(long id, String transactionId) {
+        com.homeware.notificationservice.entity.PaymentDetails row = new com.homeware.notificationservice.entity.PaymentDetails();
+        row.setId(id);
+        row.setTransactionId(transactionId);
+        row.setMerchantEmail("merchant@example.com");
+        row.setMerchantName("Test Merchant");
+        row.setAmount(new BigDecimal("100.50"));
+        row.setCurrency("USD");
+        row.setPaymentMethod("Credit Card");
+        row.setPaymentStatus("SUCCESS");
+        row.setDeliveryStatus(com.homeware.notificationservice.entity.PaymentDetails.DELIVERY_DELIVERED);
+        row.setCreatedAt(LocalDateTime.now().minusDays(1));
+        return row;
+    }
+}
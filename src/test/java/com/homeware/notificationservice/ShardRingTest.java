@@ -0,0 +1,61 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.sharding.ShardRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRingTest {
+
+    @Test
+    void testMerchantAlwaysMapsToSameShard() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+
+        String shard = ring.shardFor("merchant@example.com");
+
+        assertEquals(shard, ring.shardFor("merchant@example.com"));
+        assertEquals(shard, ring.shardFor("  Merchant@Example.COM "));
+        assertEquals(shard, new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 128).shardFor("merchant@example.com"));
+    }
+
+    @Test
+    void testMerchantsAreSpreadAcrossShards() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < 30000; i++) {
+            counts.merge(ring.shardFor("merchant" + i + "@example.com"), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 7000, "unbalanced ring: " + counts));
+    }
+
+    @Test
+    void testAddingShardOnlyMovesMerchantsToNewShard() {
+        ShardRing before = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ShardRing after = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 128);
+        int moved = 0;
+
+        for (int i = 0; i < 20000; i++) {
+            String merchant = "merchant" + i + "@example.com";
+            String oldShard = before.shardFor(merchant);
+            String newShard = after.shardFor(merchant);
+            if (!oldShard.equals(newShard)) {
+                assertEquals("shard-3", newShard);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > 3000 && moved < 7000, "expected roughly a quarter to move, moved " + moved);
+    }
+
+    @Test
+    void testRequiresAtLeastOneShard() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRing(List.of(), 128));
+    }
+}
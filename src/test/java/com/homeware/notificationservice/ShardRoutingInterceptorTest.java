@@ -0,0 +1,159 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.sharding.ShardContext;
+import com.homeware.notificationservice.sharding.ShardRing;
+import com.homeware.notificationservice.sharding.ShardRoutingInterceptor;
+import com.homeware.notificationservice.sharding.TransactionShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ShardRoutingInterceptorTest {
+
+    private final PaymentDetailsRepository target = mock(PaymentDetailsRepository.class);
+    private final TransactionShardDirectory directory = mock(TransactionShardDirectory.class);
+    private final AtomicReference<String> owner = new AtomicReference<>("shard-a");
+    private PaymentDetailsRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        when(directory.lookup("tx-1")).thenAnswer(invocation -> owner.get());
+
+        ProxyFactory factory = new ProxyFactory();
+        factory.setTarget(target);
+        factory.addInterface(PaymentDetailsRepository.class);
+        factory.addAdvice(new ShardRoutingInterceptor(new ShardRing(List.of("shard-a", "shard-b"), 16), directory));
+        repository = (PaymentDetailsRepository) factory.getProxy();
+    }
+
+    @Test
+    void testUpdateBlockedByMoveIsRetriedOnNewShard() throws Exception {
+        CountDownLatch writerOnSource = new CountDownLatch(1);
+        CountDownLatch moveCommitted = new CountDownLatch(1);
+        // The source row is locked by the rebalancer: the update waits, then matches nothing once the delete commits
+        when(target.markDelivered(eq("tx-1"), any())).thenAnswer(invocation -> {
+            if ("shard-a".equals(ShardContext.current())) {
+                writerOnSource.countDown();
+                assertTrue(moveCommitted.await(5, TimeUnit.SECONDS));
+                return 0;
+            }
+            return 1;
+        });
+
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> updated = writer.submit(() -> repository.markDelivered("tx-1", LocalDateTime.now()));
+
+            assertTrue(writerOnSource.await(5, TimeUnit.SECONDS));
+            owner.set("shard-b");
+            moveCommitted.countDown();
+
+            assertEquals(1, updated.get(5, TimeUnit.SECONDS));
+        } finally {
+            writer.shutdownNow();
+        }
+        verify(target, times(2)).markDelivered(eq("tx-1"), any());
+    }
+
+    @Test
+    void testUpdateRoutedByStaleEntryIsRetriedOnNewShard() {
+        when(target.markSuppressed(eq("tx-1"), any())).thenAnswer(invocation -> {
+            String shard = ShardContext.current();
+            // The move commits between the directory lookup and the update on the old shard
+            owner.set("shard-b");
+            return "shard-b".equals(shard) ? 1 : 0;
+        });
+
+        assertEquals(1, repository.markSuppressed("tx-1", LocalDateTime.now()));
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    void testPinnedUpdateIsRetriedAndPinIsRestored() {
+        owner.set("shard-b");
+        when(target.markDelivered(eq("tx-1"), any()))
+                .thenAnswer(invocation -> "shard-b".equals(ShardContext.current()) ? 1 : 0);
+
+        int updated = ShardContext.callOn("shard-a", () -> {
+            int count = repository.markDelivered("tx-1", LocalDateTime.now());
+            assertEquals("shard-a", ShardContext.current());
+            return count;
+        });
+
+        assertEquals(1, updated);
+    }
+
+    @Test
+    void testUpdateOnUnchangedOwnerIsNotRetried() {
+        when(target.markDelivered(eq("tx-1"), any())).thenReturn(0);
+
+        assertEquals(0, repository.markDelivered("tx-1", LocalDateTime.now()));
+        verify(target, times(1)).markDelivered(eq("tx-1"), any());
+    }
+
+    @Test
+    void testUnknownTransactionIdReturnsEmptyWithoutTouchingShards() {
+        assertEquals(Optional.empty(), repository.findByTransactionId("tx-unknown"));
+        assertEquals(0, repository.deferDelivery("tx-unknown", LocalDateTime.now(), LocalDateTime.now()));
+        verifyNoInteractions(target);
+    }
+
+    @Test
+    void testEveryRepositoryMethodHasARoute() {
+        assertDoesNotThrow(() -> ShardRoutingInterceptor.verifyRoutes(PaymentDetailsRepository.class));
+    }
+
+    @Test
+    void testRepositoryWithUnroutedMethodIsRejected() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> ShardRoutingInterceptor.verifyRoutes(UnroutedRepository.class));
+        assertTrue(e.getMessage().contains("findByCurrency"));
+    }
+
+    @Test
+    void testKeysetQueryRunsOnlyOnPinnedShard() {
+        List<String> queried = new ArrayList<>();
+        when(target.findReplayChunk(anyLong(), any(), any(), anyList(), anyList(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    queried.add(ShardContext.current());
+                    return List.of();
+                });
+
+        assertThrows(IllegalStateException.class, () -> repository.findReplayChunk(0L, LocalDateTime.MIN,
+                LocalDateTime.MAX, List.of("SUCCESS"), List.of("DELIVERED"), PageRequest.of(0, 10)));
+        ShardContext.runOn("shard-b", () -> repository.findReplayChunk(0L, LocalDateTime.MIN,
+                LocalDateTime.MAX, List.of("SUCCESS"), List.of("DELIVERED"), PageRequest.of(0, 10)));
+
+        assertEquals(List.of("shard-b"), queried);
+    }
+
+    @Test
+    void testObjectMethodsAreNotRouted() {
+        assertDoesNotThrow(() -> repository.toString());
+        assertDoesNotThrow(() -> repository.hashCode());
+    }
+
+    interface UnroutedRepository extends PaymentDetailsRepository {
+        List<com.homeware.notificationservice.entity.PaymentDetails> findByCurrency(String currency);
+    }
+}
@@ -0,0 +1,280 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.entity.PaymentDetails;
+import com.homeware.notificationservice.replay.ReplayJob;
+import com.homeware.notificationservice.replay.ReplayJobStore;
+import com.homeware.notificationservice.repository.PaymentDetailsRepository;
+import com.homeware.notificationservice.sharding.ShardContext;
+import com.homeware.notificationservice.sharding.ShardRebalancer;
+import com.homeware.notificationservice.sharding.ShardRing;
+import com.homeware.notificationservice.sharding.TransactionShardDirectory;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the sharded repository and the replay/rebalance lock against real PostgreSQL servers: a directory
+ * database and two shards.
+ */
+@SpringBootTest
+class ShardedRepositoryIntegrationTest {
+
+    private static final ZoneId DELIVERY_ZONE = ZoneId.of("Pacific/Kiritimati");
+
+    private static final EmbeddedPostgres DIRECTORY = startPostgres();
+    private static final EmbeddedPostgres SHARD_A = startPostgres();
+    private static final EmbeddedPostgres SHARD_B = startPostgres();
+
+    @Autowired
+    private PaymentDetailsRepository repository;
+
+    @Autowired
+    private ShardRing shardRing;
+
+    @Autowired
+    private TransactionShardDirectory directory;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private ReplayJobStore replayJobStore;
+
+    private String merchantOnA;
+    private String merchantOnB;
+
+    @DynamicPropertySource
+    static void shardProperties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", () -> DIRECTORY.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("notification.sharding.enabled", () -> "true");
+        registry.add("notification.sharding.rebalance-batch-size", () -> "2");
+        registry.add("notification.sharding.shards[0].id", () -> "shard-a");
+        registry.add("notification.sharding.shards[0].url", () -> SHARD_A.getJdbcUrl("postgres", "postgres"));
+        registry.add("notification.sharding.shards[0].username", () -> "postgres");
+        registry.add("notification.sharding.shards[0].password", () -> "postgres");
+        registry.add("notification.sharding.shards[1].id", () -> "shard-b");
+        registry.add("notification.sharding.shards[1].url", () -> SHARD_B.getJdbcUrl("postgres", "postgres"));
+        registry.add("notification.sharding.shards[1].username", () -> "postgres");
+        registry.add("notification.sharding.shards[1].password", () -> "postgres");
+        // Far from any JVM zone, so a timestamp taken from the JVM clock would stand out
+        registry.add("notification.schedule.zone", () -> DELIVERY_ZONE.getId());
+        String suppressionFile = Files.createTempDirectory("suppression").resolve("list.idx").toString();
+        registry.add("notification.suppression.file", () -> suppressionFile);
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (EmbeddedPostgres postgres : List.of(DIRECTORY, SHARD_A, SHARD_B)) {
+            new JdbcTemplate(postgres.getPostgresDatabase())
+                    .execute("TRUNCATE payment_details, transaction_shard_index, replay_job, replay_checkpoint RESTART IDENTITY");
+        }
+        merchantOnA = merchantOwnedBy("shard-a");
+        merchantOnB = merchantOwnedBy("shard-b");
+    }
+
+    @Test
+    void testSaveWritesToMerchantShardAndRegistersTransaction() {
+        repository.save(payment("TXN-A1", merchantOnA, "SUCCESS"));
+        repository.save(payment("TXN-B1", merchantOnB, "SUCCESS"));
+
+        assertEquals("shard-a", directory.lookup("TXN-A1"));
+        assertEquals("shard-b", directory.lookup("TXN-B1"));
+        assertEquals(List.of("TXN-A1"), transactionIdsOn(SHARD_A));
+        assertEquals(List.of("TXN-B1"), transactionIdsOn(SHARD_B));
+        assertEquals(List.of(), transactionIdsOn(DIRECTORY));
+    }
+
+    @Test
+    void testTimestampsComeFromTheDeliveryClock() {
+        LocalDateTime before = LocalDateTime.now(DELIVERY_ZONE).withNano(0);
+        repository.save(payment("TXN-A1", merchantOnA, "SUCCESS"));
+        LocalDateTime after = LocalDateTime.now(DELIVERY_ZONE).plusSeconds(1);
+
+        Map<String, Object> row = new JdbcTemplate(SHARD_A.getPostgresDatabase()).queryForMap(
+                "SELECT created_at, updated_at, transaction_date FROM payment_details WHERE transaction_id = 'TXN-A1'");
+        for (Object timestamp : row.values()) {
+            LocalDateTime stamped = ((Timestamp) timestamp).toLocalDateTime();
+            assertFalse(stamped.isBefore(before) || stamped.isAfter(after), row::toString);
+        }
+    }
+
+    @Test
+    void testTransactionIdIsUniqueAcrossShards() {
+        repository.save(payment("TXN-DUP", merchantOnA, "SUCCESS"));
+
+        assertThrows(DuplicateKeyException.class, () -> repository.save(payment("TXN-DUP", merchantOnB, "SUCCESS")));
+        assertEquals(List.of(), transactionIdsOn(SHARD_B));
+    }
+
+    @Test
+    void testLookupsAreRoutedToOwningShard() {
+        repository.save(payment("TXN-A1", merchantOnA, "SUCCESS"));
+        repository.save(payment("TXN-A2", merchantOnA, "FAILED"));
+        repository.save(payment("TXN-B1", merchantOnB, "FAILED"));
+
+        assertEquals(merchantOnB, repository.findByTransactionId("TXN-B1").orElseThrow().getMerchantEmail());
+        assertTrue(repository.findByTransactionIdAndPaymentStatus("TXN-A2", "FAILED").isPresent());
+        assertTrue(repository.findByTransactionId("TXN-MISSING").isEmpty());
+        List<PaymentDetails> newest = repository.findMerchantHistory(merchantOnA, Long.MAX_VALUE, PageRequest.of(0, 1));
+        assertEquals(List.of("TXN-A2"), newest.stream().map(PaymentDetails::getTransactionId).toList());
+        assertEquals(List.of("TXN-A1"), repository.findMerchantHistory(merchantOnA, newest.get(0).getId(), PageRequest.of(0, 10))
+                .stream().map(PaymentDetails::getTransactionId).toList());
+        assertEquals(1, repository.findMerchantHistoryByStatus(merchantOnA, "FAILED", Long.MAX_VALUE, PageRequest.of(0, 10)).size());
+        assertEquals(List.of("TXN-A2", "TXN-B1"), repository.findByPaymentStatus("FAILED").stream()
+                .map(PaymentDetails::getTransactionId).sorted().toList());
+
+        assertEquals(1, repository.markDelivered("TXN-B1", LocalDateTime.now()));
+        assertEquals("DELIVERED", new JdbcTemplate(SHARD_B.getPostgresDatabase()).queryForObject(
+                "SELECT delivery_status FROM payment_details WHERE transaction_id = 'TXN-B1'", String.class));
+    }
+
+    @Test
+    void testKeysetQueryNeedsPinnedShard() {
+        repository.save(payment("TXN-A1", merchantOnA, "SUCCESS"));
+
+        // Gathering one LIMIT page per shard would return too many rows, out of order
+        assertThrows(IllegalStateException.class, () -> repository.claimPendingDeliveries(LocalDateTime.now(), 10));
+        assertEquals(List.of(), ShardContext.callOn("shard-b",
+                () -> repository.findReplayChunk(0L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1),
+                        List.of("SUCCESS"), List.of("PENDING"), PageRequest.of(0, 10))));
+        assertEquals(1, ShardContext.callOn("shard-a",
+                () -> repository.findReplayChunk(0L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1),
+                        List.of("SUCCESS"), List.of("PENDING"), PageRequest.of(0, 10))).size());
+    }
+
+    @Test
+    void testRebalanceMovesRowsToTheirNewOwner() {
+        // Written while shard-a was the only shard: merchantOnB's rows still live there
+        repository.save(payment("TXN-A1", merchantOnA, "SUCCESS"));
+        for (int i = 1; i <= 3; i++) {
+            insertOn(SHARD_A, "TXN-MOVE" + i, merchantOnB);
+            directory.register("TXN-MOVE" + i, "shard-a");
+        }
+
+        assertEquals(Map.of("shard-a->shard-b", 3L), rebalancer.rebalance(true));
+        assertEquals(4, transactionIdsOn(SHARD_A).size());
+
+        assertEquals(Map.of("shard-a->shard-b", 3L), rebalancer.rebalance(false));
+
+        assertEquals(List.of("TXN-A1"), transactionIdsOn(SHARD_A));
+        assertEquals(List.of("TXN-MOVE1", "TXN-MOVE2", "TXN-MOVE3"), transactionIdsOn(SHARD_B));
+        assertEquals("shard-b", directory.lookup("TXN-MOVE2"));
+        assertEquals(merchantOnB, repository.findByTransactionId("TXN-MOVE2").orElseThrow().getMerchantEmail());
+        assertEquals(3, repository.findMerchantHistory(merchantOnB, Long.MAX_VALUE, PageRequest.of(0, 10)).size());
+        assertEquals(1, repository.markDelivered("TXN-MOVE3", LocalDateTime.now()));
+        assertEquals(Map.of(), rebalancer.rebalance(false));
+    }
+
+    @Test
+    void testRebalanceIsRefusedWhileReplayIsRunning() {
+        ReplayJob job = replayJob();
+        assertTrue(replayJobStore.create(job));
+
+        assertTrue(replayJobStore.runWithoutReplays(() -> rebalancer.rebalance(false)).isEmpty());
+
+        replayJobStore.finish(job, ReplayJob.COMPLETED, null);
+        assertEquals(Optional.of(Map.of()), replayJobStore.runWithoutReplays(() -> rebalancer.rebalance(false)));
+    }
+
+    @Test
+    void testReplayCannotStartOrResumeWhileRebalanceIsRunning() {
+        ReplayJob cancelled = replayJob();
+        assertTrue(replayJobStore.create(cancelled));
+        assertTrue(replayJobStore.cancel(cancelled.getId()));
+
+        Optional<List<Boolean>> duringRebalance = replayJobStore.runWithoutReplays(() -> List.of(
+                replayJobStore.create(replayJob()),
+                replayJobStore.claim(cancelled.getId(), "other-node", LocalDateTime.now())));
+
+        assertEquals(Optional.of(List.of(false, false)), duringRebalance);
+        assertEquals(1, replayJobStore.findRecent(10).size());
+        assertTrue(replayJobStore.claim(cancelled.getId(), "other-node", LocalDateTime.now()));
+    }
+
+    private static ReplayJob replayJob() {
+        ReplayJob job = new ReplayJob();
+        job.setOwner(UUID.randomUUID().toString());
+        job.setPaymentStatuses(List.of("SUCCESS"));
+        job.setDeliveryStatuses(List.of("DELIVERED"));
+        job.setParallelism(1);
+        return job;
+    }
+
+    private String merchantOwnedBy(String shard) {
+        for (int i = 0; ; i++) {
+            String merchant = "merchant" + i + "@example.com";
+            if (shardRing.shardFor(merchant).equals(shard)) {
+                return merchant;
+            }
+        }
+    }
+
+    private static PaymentDetails payment(String transactionId, String merchantEmail, String status) {
+        PaymentDetails payment = new PaymentDetails();
+        payment.setTransactionId(transactionId);
+        payment.setMerchantEmail(merchantEmail);
+        payment.setMerchantName("Test Merchant");
+        payment.setAmount(new BigDecimal("100.50"));
+        payment.setCurrency("USD");
+        payment.setPaymentMethod("Credit Card");
+        payment.setPaymentStatus(status);
+        return payment;
+    }
+
+    private static void insertOn(EmbeddedPostgres shard, String transactionId, String merchantEmail) {
+        new JdbcTemplate(shard.getPostgresDatabase()).update("INSERT INTO payment_details (transaction_id, merchant_email, "
+                        + "merchant_name, amount, currency, payment_method, payment_status, delivery_status, created_at) "
+                        + "VALUES (?, ?, 'Test Merchant', 100.50, 'USD', 'Credit Card', 'SUCCESS', 'PENDING', now())",
+                transactionId, merchantEmail);
+    }
+
+    private static List<String> transactionIdsOn(EmbeddedPostgres postgres) {
+        return new JdbcTemplate(postgres.getPostgresDatabase())
+                .queryForList("SELECT transaction_id FROM payment_details ORDER BY transaction_id", String.class);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.start();
+            DataSource dataSource = postgres.getPostgresDatabase();
+            try (Connection connection = dataSource.getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            }
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.suppression.SuppressionList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuppressionListTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAddContainsAndRemove() {
+        try (SuppressionList list = SuppressionList.open(tempDir.resolve("suppression.idx"), 16)) {
+            assertFalse(list.contains("bounce@example.com"));
+
+            assertTrue(list.add("bounce@example.com"));
+            assertFalse(list.add("bounce@example.com"));
+            assertTrue(list.contains("bounce@example.com"));
+            assertTrue(list.contains("  Bounce@Example.COM "));
+            assertFalse(list.contains("merchant@example.com"));
+            assertEquals(1, list.size());
+
+            assertTrue(list.remove("bounce@example.com"));
+            assertFalse(list.remove("bounce@example.com"));
+            assertFalse(list.contains("bounce@example.com"));
+            assertEquals(0, list.size());
+        }
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        try (SuppressionList list = SuppressionList.open(tempDir.resolve("suppression.idx"), 16)) {
+            for (int i = 0; i < 10000; i++) {
+                list.add("user" + i + "@example.com");
+            }
+
+            assertEquals(10000, list.size());
+            assertTrue(list.capacity() >= 10000 / 0.7);
+            for (int i = 0; i < 10000; i++) {
+                assertTrue(list.contains("user" + i + "@example.com"));
+            }
+            assertFalse(list.contains("user10000@example.com"));
+        }
+    }
+
+    @Test
+    void testSnapshotSurvivesReopen() {
+        Path file = tempDir.resolve("suppression.idx");
+        try (SuppressionList list = SuppressionList.open(file, 16)) {
+            for (int i = 0; i < 100; i++) {
+                list.add("user" + i + "@example.com");
+            }
+            list.remove("user7@example.com");
+        }
+
+        try (SuppressionList reopened = SuppressionList.open(file, 16)) {
+            assertEquals(99, reopened.size());
+            assertTrue(reopened.contains("user42@example.com"));
+            assertFalse(reopened.contains("user7@example.com"));
+        }
+    }
+
+    @Test
+    void testTombstonesDoNotBreakProbeChains() {
+        try (SuppressionList list = SuppressionList.open(tempDir.resolve("suppression.idx"), 16)) {
+            for (int round = 0; round < 50; round++) {
+                for (int i = 0; i < 8; i++) {
+                    list.add("round" + round + "-" + i + "@example.com");
+                }
+                for (int i = 0; i < 8; i += 2) {
+                    list.remove("round" + round + "-" + i + "@example.com");
+                }
+            }
+
+            assertEquals(200, list.size());
+            assertTrue(list.contains("round49-7@example.com"));
+            assertFalse(list.contains("round49-6@example.com"));
+        }
+    }
+}
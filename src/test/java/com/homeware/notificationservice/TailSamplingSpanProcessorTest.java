@@ -0,0 +1,178 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.tracing.TailSamplingSpanProcessor;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailSamplingSpanProcessorTest {
+
+    private static final long LATENCY_THRESHOLD_MS = 500;
+
+    private final ManualClock clock = new ManualClock();
+    private final RecordingProcessor exported = new RecordingProcessor();
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void testFastTraceWithoutErrorsIsDropped() {
+        Tracer tracer = createTracer(0.0, 100);
+
+        Span root = tracer.spanBuilder("root").startSpan();
+        child(tracer, root, "child").end();
+        clock.advance(LATENCY_THRESHOLD_MS - 1);
+        root.end();
+
+        assertEquals(List.of(), exported.names());
+    }
+
+    @Test
+    void testErrorInAnySpanKeepsTheWholeTrace() {
+        Tracer tracer = createTracer(0.0, 100);
+
+        Span root = tracer.spanBuilder("root").startSpan();
+        child(tracer, root, "ok").end();
+        Span failing = child(tracer, root, "failing");
+        failing.setStatus(StatusCode.ERROR);
+        failing.end();
+        root.end();
+
+        assertEquals(List.of("ok", "failing", "root"), exported.names());
+    }
+
+    @Test
+    void testSlowRootKeepsTheWholeTrace() {
+        Tracer tracer = createTracer(0.0, 100);
+
+        Span root = tracer.spanBuilder("root").startSpan();
+        child(tracer, root, "child").end();
+        clock.advance(LATENCY_THRESHOLD_MS);
+        root.end();
+
+        assertEquals(List.of("child", "root"), exported.names());
+    }
+
+    @Test
+    void testBaselineKeepsFastTraces() {
+        Tracer tracer = createTracer(1.0, 100);
+
+        tracer.spanBuilder("root").startSpan().end();
+
+        assertEquals(List.of("root"), exported.names());
+    }
+
+    @Test
+    void testSpanEndingAfterTheDecisionFollowsIt() {
+        Tracer tracer = createTracer(0.0, 100);
+
+        Span keptRoot = tracer.spanBuilder("kept").startSpan();
+        Span lateInKept = child(tracer, keptRoot, "late-in-kept");
+        keptRoot.setStatus(StatusCode.ERROR);
+        keptRoot.end();
+        Span droppedRoot = tracer.spanBuilder("dropped").startSpan();
+        Span lateInDropped = child(tracer, droppedRoot, "late-in-dropped");
+        droppedRoot.end();
+
+        lateInKept.end();
+        lateInDropped.end();
+
+        assertEquals(List.of("kept", "late-in-kept"), exported.names());
+    }
+
+    @Test
+    void testBufferHoldsAtMostMaxPendingTraces() {
+        Tracer tracer = createTracer(0.0, 2);
+
+        List<Span> roots = List.of(tracer.spanBuilder("root1").startSpan(),
+                tracer.spanBuilder("root2").startSpan(), tracer.spanBuilder("root3").startSpan());
+        for (int i = 0; i < roots.size(); i++) {
+            child(tracer, roots.get(i), "child" + (i + 1)).end();
+        }
+        for (Span root : roots) {
+            root.setStatus(StatusCode.ERROR);
+            root.end();
+        }
+
+        // The third trace found the buffer full: its root is still decided on, but its child was never held
+        assertEquals(List.of("child1", "root1", "child2", "root2", "root3"), exported.names());
+    }
+
+    private Tracer createTracer(double baselineRatio, int maxPendingTraces) {
+        tracerProvider = SdkTracerProvider.builder()
+                .setClock(clock)
+                .addSpanProcessor(new TailSamplingSpanProcessor(exported, LATENCY_THRESHOLD_MS, baselineRatio, maxPendingTraces))
+                .build();
+        return tracerProvider.get("test");
+    }
+
+    private static Span child(Tracer tracer, Span parent, String name) {
+        return tracer.spanBuilder(name).setParent(Context.root().with(parent)).startSpan();
+    }
+
+    static final class ManualClock implements Clock {
+        private volatile long nanos = TimeUnit.SECONDS.toNanos(1_700_000_000L);
+
+        void advance(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long now() {
+            return nanos;
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+    }
+
+    static final class RecordingProcessor implements SpanProcessor {
+        private final List<ReadableSpan> spans = new CopyOnWriteArrayList<>();
+
+        List<ReadableSpan> spans() {
+            return spans;
+        }
+
+        List<String> names() {
+            return spans.stream().map(ReadableSpan::getName).toList();
+        }
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            spans.add(span);
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+    }
+}
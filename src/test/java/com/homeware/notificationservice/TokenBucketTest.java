@@ -0,0 +1,64 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.replay.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void testAcquireIsPacedToRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(100);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 21; i++) {
+            bucket.acquire();
+        }
+
+        // The first permit is immediate, the other 20 arrive 10ms apart
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 180, "took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void testRateIsSharedAcrossThreads() throws Exception {
+        TokenBucket bucket = new TokenBucket(200);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(41);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 41; i++) {
+            pool.execute(() -> {
+                try {
+                    bucket.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 180, "took " + elapsedMs + "ms");
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testZeroRateIsUnlimited() throws Exception {
+        TokenBucket bucket = new TokenBucket(0);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 10_000; i++) {
+            bucket.acquire();
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+}
@@ -0,0 +1,129 @@
+package com.homeware.notificationservice;
+
+import com.homeware.notificationservice.tracing.TailSamplingSpanProcessor;
+import com.homeware.notificationservice.tracing.TracingFilter;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the filter with the tail sampler in front of the exporter, as {@code TracingConfig} wires them.
+ */
+class TracingFilterTest {
+
+    private static final long LATENCY_THRESHOLD_MS = 500;
+
+    private final TailSamplingSpanProcessorTest.ManualClock clock = new TailSamplingSpanProcessorTest.ManualClock();
+    private final TailSamplingSpanProcessorTest.RecordingProcessor exported = new TailSamplingSpanProcessorTest.RecordingProcessor();
+    private OpenTelemetrySdk openTelemetry;
+    private TracingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .setClock(clock)
+                        .addSpanProcessor(new TailSamplingSpanProcessor(exported, LATENCY_THRESHOLD_MS, 0.0, 100))
+                        .build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        filter = new TracingFilter(openTelemetry, openTelemetry.getTracer("test"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        openTelemetry.close();
+    }
+
+    @Test
+    void testFastSuccessfulRequestIsDropped() throws Exception {
+        run(request(), new MockHttpServletResponse(), (req, res) -> clock.advance(LATENCY_THRESHOLD_MS - 1));
+
+        assertEquals(List.of(), exported.names());
+    }
+
+    @Test
+    void testSlowRequestIsKept() throws Exception {
+        run(request(), new MockHttpServletResponse(), (req, res) -> clock.advance(LATENCY_THRESHOLD_MS));
+
+        SpanData span = exportedSpan();
+        assertEquals("POST /api/notifications/payment", span.getName());
+        assertEquals(SpanKind.SERVER, span.getKind());
+        assertEquals(200L, span.getAttributes().get(AttributeKey.longKey("http.status_code")));
+        assertEquals(StatusCode.UNSET, span.getStatus().getStatusCode());
+    }
+
+    @Test
+    void testServerErrorIsKept() throws Exception {
+        run(request(), new MockHttpServletResponse(), (req, res) -> ((MockHttpServletResponse) res).setStatus(503));
+
+        SpanData span = exportedSpan();
+        assertEquals(503L, span.getAttributes().get(AttributeKey.longKey("http.status_code")));
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+    }
+
+    @Test
+    void testClientErrorIsDropped() throws Exception {
+        run(request(), new MockHttpServletResponse(), (req, res) -> ((MockHttpServletResponse) res).setStatus(400));
+
+        assertEquals(List.of(), exported.names());
+    }
+
+    @Test
+    void testExceptionIsRecordedAndRethrown() {
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> run(request(), new MockHttpServletResponse(), (req, res) -> {
+                    throw failure;
+                })));
+
+        SpanData span = exportedSpan();
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+        assertEquals("exception", span.getEvents().get(0).getName());
+    }
+
+    @Test
+    void testIncomingTraceparentIsContinued() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+
+        run(request, new MockHttpServletResponse(), (req, res) -> ((MockHttpServletResponse) res).setStatus(500));
+
+        SpanData span = exportedSpan();
+        assertEquals("0af7651916cd43dd8448eb211c80319c", span.getTraceId());
+        assertEquals("b7ad6b7169203331", span.getParentSpanId());
+        assertTrue(span.getParentSpanContext().isRemote());
+    }
+
+    private void run(MockHttpServletRequest request, MockHttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+    }
+
+    private SpanData exportedSpan() {
+        assertEquals(1, exported.spans().size());
+        return exported.spans().get(0).toSpanData();
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("POST", "/api/notifications/payment");
+    }
+}
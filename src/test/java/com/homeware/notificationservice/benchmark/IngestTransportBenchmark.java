@@ -0,0 +1,211 @@
+package com.homeware.notificationservice.benchmark;
+
+import com.homeware.notificationservice.NotificationServiceApplication;
+import com.homeware.notificationservice.grpc.GrpcServer;
+import com.homeware.notificationservice.grpc.v1.Decimal;
+import com.homeware.notificationservice.grpc.v1.PaymentNotification;
+import com.homeware.notificationservice.grpc.v1.PaymentNotificationServiceGrpc;
+import com.homeware.notificationservice.grpc.v1.SubmitBatchResult;
+import com.homeware.notificationservice.grpc.v1.SubmitResult;
+import com.google.protobuf.ByteString;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Payments accepted per second over each transport, end to end: the whole application runs against an
+ * embedded PostgreSQL server, and each call is validated, stored and dispatched before it returns.
+ * Only the SMTP hop is replaced, by a sender that discards the message, so the mail server's speed does
+ * not hide the transport's. Every call must come back delivered; a shed or failed call fails the run.
+ * {@code stream} sends {@value #STREAM_SIZE} payments per {@code SubmitStream} call and is reported per payment.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=IngestTransport}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+public class IngestTransportBenchmark {
+
+    private static final int STREAM_SIZE = 100;
+
+    private final AtomicLong transactions = new AtomicLong();
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI paymentUri;
+    private ManagedChannel channel;
+    private PaymentNotificationServiceGrpc.PaymentNotificationServiceBlockingStub blockingStub;
+    private PaymentNotificationServiceGrpc.PaymentNotificationServiceStub asyncStub;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        }
+        context = new SpringApplicationBuilder(NotificationServiceApplication.class, DiscardingMail.class)
+                // Arguments, so they win over application.properties
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.datasource.hikari.maximum-pool-size=16",
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--spring.jpa.show-sql=false",
+                        "--notification.grpc.enabled=true",
+                        "--notification.grpc.port=0",
+                        // Both transports share the limiter; keep it from shedding the benchmark's own load
+                        "--notification.admission.initial-limit=200",
+                        "--notification.suppression.file="
+                                + Files.createTempDirectory("suppression").resolve("list.idx"),
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.homeware.notificationservice=WARN");
+
+        int httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newHttpClient();
+        paymentUri = URI.create("http://localhost:" + httpPort + "/api/notifications/payment");
+        channel = NettyChannelBuilder.forAddress("localhost", context.getBean(GrpcServer.class).getPort())
+                .usePlaintext()
+                .build();
+        blockingStub = PaymentNotificationServiceGrpc.newBlockingStub(channel);
+        asyncStub = PaymentNotificationServiceGrpc.newStub(channel);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        channel.shutdownNow();
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public int rest() throws Exception {
+        String json = "{\"transactionId\":\"REST-" + transactions.incrementAndGet() + "\","
+                + "\"merchantEmail\":\"merchant@example.com\",\"merchantName\":\"Test Merchant\","
+                + "\"amount\":100.50,\"currency\":\"USD\",\"paymentMethod\":\"Credit Card\","
+                + "\"paymentStatus\":\"SUCCESS\",\"customerEmail\":\"customer@example.com\","
+                + "\"orderId\":\"ORD-1\",\"description\":\"Order payment\"}";
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(paymentUri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("REST submission returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    @Benchmark
+    public SubmitResult grpc() {
+        SubmitResult result = blockingStub.submit(payment("GRPC-" + transactions.incrementAndGet()));
+        checkDelivered(result);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_SIZE)
+    public SubmitBatchResult stream() throws Exception {
+        CompletableFuture<SubmitBatchResult> done = new CompletableFuture<>();
+        StreamObserver<PaymentNotification> requests = asyncStub.submitStream(new StreamObserver<>() {
+            @Override
+            public void onNext(SubmitBatchResult value) {
+                done.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        for (int i = 0; i < STREAM_SIZE; i++) {
+            requests.onNext(payment("STREAM-" + transactions.incrementAndGet()));
+        }
+        requests.onCompleted();
+        SubmitBatchResult batch = done.get(1, TimeUnit.MINUTES);
+        batch.getResultsList().forEach(IngestTransportBenchmark::checkDelivered);
+        return batch;
+    }
+
+    private static PaymentNotification payment(String transactionId) {
+        BigDecimal amount = new BigDecimal("100.50");
+        return PaymentNotification.newBuilder()
+                .setTransactionId(transactionId)
+                .setMerchantEmail("merchant@example.com")
+                .setMerchantName("Test Merchant")
+                .setAmount(Decimal.newBuilder()
+                        .setUnscaledValue(ByteString.copyFrom(amount.unscaledValue().toByteArray()))
+                        .setScale(amount.scale()))
+                .setCurrency("USD")
+                .setPaymentMethod("Credit Card")
+                .setPaymentStatus("SUCCESS")
+                .setCustomerEmail("customer@example.com")
+                .setOrderId("ORD-1")
+                .setDescription("Order payment")
+                .build();
+    }
+
+    private static void checkDelivered(SubmitResult result) {
+        if (result.getOutcome() != SubmitResult.Outcome.DELIVERED) {
+            throw new IllegalStateException("gRPC submission returned " + result.getOutcome() + ": " + result.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the SMTP sender. Registered as a source rather than annotated, so component scanning of the
+     * application package never picks it up in other tests.
+     */
+    public static class DiscardingMail {
+
+        @Bean
+        public JavaMailSender mailSender() {
+            return new JavaMailSenderImpl() {
+                @Override
+                protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+                }
+            };
+        }
+    }
+}
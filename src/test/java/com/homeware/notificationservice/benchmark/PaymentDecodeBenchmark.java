@@ -0,0 +1,74 @@
+package com.homeware.notificationservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.grpc.PaymentNotificationMapper;
+import com.homeware.notificationservice.grpc.v1.PaymentNotification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payloads decoded per second into {@link PaymentDetails}: the JSON body the REST endpoint reads versus
+ * the Protobuf message the gRPC endpoint reads. Both payloads carry every field, including the amount
+ * and transaction date. Transport overhead (HTTP/1.1 versus HTTP/2 framing) is not included.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PaymentDecode}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentDecodeBenchmark {
+
+    private ObjectMapper objectMapper;
+    private byte[] json;
+    private byte[] protobuf;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        PaymentDetails paymentDetails = new PaymentDetails();
+        paymentDetails.setTransactionId("TXN123456789");
+        paymentDetails.setMerchantEmail("merchant@example.com");
+        paymentDetails.setMerchantName("Test Merchant");
+        paymentDetails.setAmount(new BigDecimal("1234.56"));
+        paymentDetails.setCurrency("USD");
+        paymentDetails.setPaymentMethod("Credit Card");
+        paymentDetails.setPaymentStatus("FAILED");
+        paymentDetails.setFailureReason("Insufficient funds");
+        paymentDetails.setCustomerEmail("customer@example.com");
+        paymentDetails.setCustomerName("John Doe");
+        paymentDetails.setTransactionDate(LocalDateTime.of(2024, 1, 15, 10, 30, 0));
+        paymentDetails.setOrderId("ORD123456");
+        paymentDetails.setDescription("Product purchase");
+
+        json = objectMapper.writeValueAsBytes(paymentDetails);
+        protobuf = PaymentNotificationMapper.toMessage(paymentDetails, ZoneOffset.UTC).toByteArray();
+    }
+
+    @Benchmark
+    public PaymentDetails json() throws Exception {
+        return objectMapper.readValue(json, PaymentDetails.class);
+    }
+
+    @Benchmark
+    public PaymentDetails protobuf() throws Exception {
+        return PaymentNotificationMapper.toPaymentDetails(PaymentNotification.parseFrom(protobuf), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,116 @@
+package com.homeware.notificationservice.benchmark;
+
+import com.homeware.notificationservice.dto.PaymentDetails;
+import com.homeware.notificationservice.exception.PaymentValidationException;
+import com.homeware.notificationservice.validation.PaymentDetailsValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU time per request spent validating a payment. {@code beanValidation*} is the previous path:
+ * {@code @Valid} followed by the controller's FAILED/failureReason check and the status check
+ * done later in {@code EmailNotificationService}. {@code generated*} is {@link PaymentDetailsValidator}.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PaymentValidation}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private PaymentDetailsValidator generatedValidator;
+    private PaymentDetails valid;
+    private PaymentDetails invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+        generatedValidator = new PaymentDetailsValidator();
+
+        valid = new PaymentDetails();
+        valid.setTransactionId("TXN123456789");
+        valid.setMerchantEmail("merchant@example.com");
+        valid.setMerchantName("Test Merchant");
+        valid.setAmount(new BigDecimal("100.50"));
+        valid.setCurrency("USD");
+        valid.setPaymentMethod("Credit Card");
+        valid.setPaymentStatus("FAILED");
+        valid.setFailureReason("Insufficient funds");
+
+        invalid = new PaymentDetails();
+        invalid.setMerchantEmail("invalid-email");
+        invalid.setAmount(new BigDecimal("100.50"));
+        invalid.setPaymentStatus("SUCCESS");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public int beanValidationValid() {
+        return beanValidation(valid);
+    }
+
+    @Benchmark
+    public int beanValidationInvalid() {
+        return beanValidation(invalid);
+    }
+
+    @Benchmark
+    public int generatedValid() {
+        return generated(valid);
+    }
+
+    @Benchmark
+    public int generatedInvalid() {
+        return generated(invalid);
+    }
+
+    private int beanValidation(PaymentDetails paymentDetails) {
+        Set<ConstraintViolation<PaymentDetails>> violations = beanValidator.validate(paymentDetails);
+        if (!violations.isEmpty()) {
+            return violations.size();
+        }
+        String status = paymentDetails.getPaymentStatus();
+        if ("FAILED".equalsIgnoreCase(status)
+                && (paymentDetails.getFailureReason() == null || paymentDetails.getFailureReason().trim().isEmpty())) {
+            return -1;
+        }
+        return "SUCCESS".equalsIgnoreCase(status) || "FAILED".equalsIgnoreCase(status) ? 0 : -1;
+    }
+
+    private int generated(PaymentDetails paymentDetails) {
+        try {
+            generatedValidator.validate(paymentDetails);
+            return 0;
+        } catch (PaymentValidationException e) {
+            return e.getFieldErrors().size();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.homeware.notificationservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeware.notificationservice.dto.ErrorResponse;
+import com.homeware.notificationservice.exception.DuplicateTransactionException;
+import com.homeware.notificationservice.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Rejected duplicate submissions per second, from the throw in the controller to the response bytes.
+ * {@code legacy} reproduces the previous path: an exception with a full stack trace, captured a few
+ * frames deep as it would be under Spring MVC, and an {@code ErrorResponse} serialized by Jackson.
+ * {@code current} goes through {@link GlobalExceptionHandler} with its stackless exception and
+ * pre-serialized body, including its rate-limited log call. The legacy path leaves out the WARN line it
+ * used to write for every rejection, so the measured gap understates the real one.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RejectionPath}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RejectionPathBenchmark {
+
+    private ObjectMapper objectMapper;
+    private GlobalExceptionHandler handler;
+    private ServletWebRequest request;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        // One log line per second, as a storm would see with a small budget
+        handler = new GlobalExceptionHandler(1);
+        request = new ServletWebRequest(new MockHttpServletRequest("POST", "/api/notifications/payment"));
+    }
+
+    @Benchmark
+    public byte[] legacy() throws Exception {
+        try {
+            throwDeep(16, () -> new LegacyDuplicateTransactionException("Transaction ID already exists"));
+            return null;
+        } catch (LegacyDuplicateTransactionException ex) {
+            ErrorResponse errorResponse = new ErrorResponse(
+                    HttpStatus.CONFLICT.value(),
+                    "Conflict",
+                    ex.getMessage(),
+                    request.getDescription(false).replace("uri=", "")
+            );
+            return objectMapper.writeValueAsBytes(errorResponse);
+        }
+    }
+
+    @Benchmark
+    public byte[] current() {
+        try {
+            throwDeep(16, () -> new DuplicateTransactionException("Transaction ID already exists"));
+            return null;
+        } catch (DuplicateTransactionException ex) {
+            ResponseEntity<byte[]> response = handler.handleDuplicateTransactionException(ex, request);
+            return response.getBody();
+        }
+    }
+
+    /**
+     * Recurses before throwing so the stack trace has a realistic depth to walk.
+     */
+    private static void throwDeep(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwDeep(depth - 1, exception);
+    }
+
+    /**
+     * The exception as it was before it became stackless.
+     */
+    static class LegacyDuplicateTransactionException extends RuntimeException {
+        LegacyDuplicateTransactionException(String message) {
+            super(message);
+        }
+    }
+}